@@ -0,0 +1,79 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Cost of {@code DETECTORS} on the {@code STREAMING} engine. Compare the score of each set of detectors with
+ * {@code NONE}, which masks the same pointer without scanning strings.
+ *
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=DetectorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DetectorBenchmark {
+    @Param({"1024", "65536"})
+    public int size;
+
+    @Param({"NONE", "EMAIL", "SSN,PAN,EMAIL,PHONE"})
+    public String detectors;
+
+    MaskingEngine maskingEngine;
+    String payload;
+
+    @Setup
+    public void setup() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(REPLACEMENT_FIELD_PATH, "/l0/ssn");
+        configs.put(MASKING_ENGINE, MASKING_ENGINE_STREAMING);
+        if (!"NONE".equals(detectors)) {
+            configs.put(DETECTORS, detectors);
+        }
+        maskingEngine = MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs)).engine;
+
+        // the filler is free text, and nothing in it is detected.
+        payload = MaskJsonFieldBenchmark.payload(size, 2, false, true);
+    }
+
+    @Benchmark
+    public String mask() throws IOException {
+        return maskingEngine.mask(payload);
+    }
+}
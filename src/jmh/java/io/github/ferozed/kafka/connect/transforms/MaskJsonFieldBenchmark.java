@@ -0,0 +1,187 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Throughput of {@code MaskJsonField.Key.apply} and {@code MaskJsonField.Value.apply}, for String, Struct and
+ * Map inputs, over payload size, pointer depth, array or object targets, and the share of records that contain
+ * the target.
+ *
+ * All parameter combinations take a long time. Narrow them down with the jmh jar, for eg:
+ *
+ * <pre>
+ * ./gradlew jmhJar
+ * java -jar build/libs/*-jmh.jar MaskJsonFieldBenchmark -p input=STRING -p size=1024,1048576 -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskJsonFieldBenchmark {
+    /**
+     * Number of distinct records cycled through, so that hit and miss records are interleaved.
+     */
+    private static final int RECORDS = 20;
+
+    private static final Schema STRUCT_SCHEMA = SchemaBuilder.struct()
+            .field("id", Schema.INT64_SCHEMA)
+            .field("data", Schema.STRING_SCHEMA)
+            .build();
+
+    @Param({"STRING", "STRUCT", "MAP"})
+    public String input;
+
+    @Param({"VALUE", "KEY"})
+    public String side;
+
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    @Param({"1", "8"})
+    public int depth;
+
+    @Param({"OBJECT", "ARRAY"})
+    public String target;
+
+    /**
+     * Percentage of records that contain the target.
+     */
+    @Param({"100", "50", "0"})
+    public int hitPercent;
+
+    @Param({MASKING_ENGINE_TREE, MASKING_ENGINE_STREAMING, MASKING_ENGINE_SPLICE})
+    public String engine;
+
+    MaskJsonField<SinkRecord> transform;
+    String[] payloads;
+    int next;
+
+    @Setup
+    public void setup() {
+        boolean array = "ARRAY".equals(target);
+
+        StringBuilder pointer = new StringBuilder();
+        for (int i = 0; i < depth - 1; i++) {
+            pointer.append("/l").append(i);
+        }
+        pointer.append("/ssn");
+        if (array) {
+            pointer.append("/3");
+        }
+
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(REPLACEMENT_FIELD_PATH, pointer.toString());
+        configs.put(MASKING_ENGINE, engine);
+        if (!"STRING".equals(input)) {
+            configs.put(CONNECT_FIELD_NAME, "data");
+        }
+        transform = "KEY".equals(side) ? new MaskJsonField.Key<>() : new MaskJsonField.Value<>();
+        transform.configure(configs);
+
+        // hits are spread evenly over the records.
+        payloads = new String[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            payloads[i] = payload(size, depth, array, (i + 1) * hitPercent / 100 > i * hitPercent / 100);
+        }
+    }
+
+    /**
+     * Builds a record around the next payload and masks it. The transform does not modify its input, but Struct
+     * and Map inputs are built for every call anyway, since a converter produces fresh ones for every record.
+     */
+    @Benchmark
+    public Object apply() {
+        String payload = payloads[next];
+        next = next + 1 == RECORDS ? 0 : next + 1;
+
+        Schema schema;
+        Object value;
+        if ("STRUCT".equals(input)) {
+            schema = STRUCT_SCHEMA;
+            value = new Struct(STRUCT_SCHEMA).put("id", 1L).put("data", payload);
+        } else if ("MAP".equals(input)) {
+            Map<String,Object> map = new HashMap<>();
+            map.put("id", 1L);
+            map.put("data", payload);
+            schema = null;
+            value = map;
+        } else {
+            schema = Schema.STRING_SCHEMA;
+            value = payload;
+        }
+
+        SinkRecord record = "KEY".equals(side)
+                ? new SinkRecord("topic", 0, schema, value, Schema.STRING_SCHEMA, "value", 0)
+                : new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "key", schema, value, 0);
+        return transform.apply(record);
+    }
+
+    /**
+     * A document of about {@code size} chars. The filler is an array of small records, and comes first, so the
+     * target is the last thing read.
+     * Records without the target have the same shape, with {@code ssx} in place of {@code ssn}.
+     */
+    static String payload(int size, int depth, boolean array, boolean hit) {
+        StringBuilder json = new StringBuilder(size + 256);
+        json.append("{\"id\":12345,\"filler\":[");
+        for (int i = 0; json.length() < size - 64 * depth; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"seq\":").append(i).append(",\"text\":\"lorem ipsum dolor sit amet, consectetur\"}");
+        }
+        json.append(']');
+
+        for (int i = 0; i < depth - 1; i++) {
+            json.append(",\"l").append(i).append("\":{\"name\":\"level ").append(i).append('"');
+        }
+        json.append(hit ? ",\"ssn\":" : ",\"ssx\":");
+        if (array) {
+            json.append("[\"111-22-0000\",\"111-22-1111\",\"111-22-2222\",\"111-22-3333\"]");
+        } else {
+            json.append("\"111-22-3333\"");
+        }
+        for (int i = 0; i < depth - 1; i++) {
+            json.append('}');
+        }
+        return json.append('}').toString();
+    }
+}
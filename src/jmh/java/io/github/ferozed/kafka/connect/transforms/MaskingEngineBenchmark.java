@@ -0,0 +1,85 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Allocation of a single {@link MaskingEngine#mask} call, without the Connect record around it.
+ *
+ * Run it with the gc profiler and compare {@code gc.alloc.rate.norm} with the payload size. Once warmed up, an
+ * engine should only allocate its result and a few small parser objects per call.
+ *
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=MaskingEngineBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskingEngineBenchmark {
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    @Param({MASKING_ENGINE_TREE, MASKING_ENGINE_STREAMING, MASKING_ENGINE_SPLICE})
+    public String engine;
+
+    MaskingEngine maskingEngine;
+    String payload;
+    byte[] bytes;
+
+    @Setup
+    public void setup() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(REPLACEMENT_FIELD_PATH, "/l0/ssn");
+        configs.put(MASKING_ENGINE, engine);
+        maskingEngine = MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs)).engine;
+
+        payload = MaskJsonFieldBenchmark.payload(size, 2, false, true);
+        bytes = payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String maskString() throws IOException {
+        return maskingEngine.mask(payload);
+    }
+
+    @Benchmark
+    public byte[] maskBytes() throws IOException {
+        return maskingEngine.mask(bytes);
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Compares the per-record setup work that was done before the masking plan existed, with reading the
+ * same values from a precompiled {@link MaskingPlan}.
+ *
+ * <pre>
+ * ./gradlew jmh -Pjmh.includes=MaskingPlanBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskingPlanBenchmark {
+    MaskJsonFieldConfig config;
+    List<ReplacementPath> paths;
+    MaskingPlan plan;
+
+    @Setup
+    public void setup() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(CONNECT_FIELD_NAME, "private_info.data");
+        configs.put(REPLACEMENT_FIELD_PATHS, "/user/ssn,/user/dob,/user/accounts/0/number,/user/address/street");
+        config = new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs);
+        paths = config.replacementPaths();
+        plan = MaskingPlan.compile(config);
+    }
+
+    /**
+     * What every record paid before: regex split of the connect field, pointer parsing, and config lookups
+     * to build the replacement nodes.
+     */
+    @Benchmark
+    public void perRecordLookup(Blackhole blackhole) {
+        blackhole.consume(config.getString(CONNECT_FIELD_NAME).split("\\."));
+        for (ReplacementPath path : paths) {
+            JsonPointer pointer = JsonPointer.compile(path.getPath());
+            blackhole.consume(pointer.head());
+            blackhole.consume(pointer.last().getMatchingProperty());
+            blackhole.consume(TextNode.valueOf(config.getString(REPLACEMENT_VALUE_STRING)));
+            blackhole.consume(IntNode.valueOf(config.getInt(REPLACEMENT_VALUE_INT)));
+            blackhole.consume(LongNode.valueOf(config.getLong(REPLACEMENT_VALUE_LONG)));
+            blackhole.consume(DoubleNode.valueOf(config.getDouble(REPLACEMENT_VALUE_DOUBLE)));
+        }
+    }
+
+    /**
+     * The same values, read from the plan compiled in {@code configure()}.
+     */
+    @Benchmark
+    public void precompiledPlan(Blackhole blackhole) {
+        blackhole.consume(plan.connectFieldTokens);
+        for (MaskingRule rule : plan.rules) {
+            blackhole.consume(rule.head);
+            blackhole.consume(rule.lastProperty);
+            blackhole.consume(rule.textNode);
+            blackhole.consume(rule.intNode);
+            blackhole.consume(rule.longNode);
+            blackhole.consume(rule.doubleNode);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * The JSON payload fields of {@code CONNECT_FIELD_PATHS}, each with its own rules, compiled into a tree of
+ * field names. All fields of a record are masked in a single walk of the tree, and the structs and maps on the
+ * paths to masked fields are copied once, however many fields below them were masked.
+ *
+ * Fields that a record does not have, or that are null, are skipped.
+ */
+final class ConnectFields {
+    /**
+     * Masks the payload of one field. Implemented by the transform, which counts outcomes and applies
+     * {@code FAILURE_POLICY}.
+     */
+    interface PayloadMasker {
+        /**
+         * @return the masked payload, or {@code payload} itself if nothing was masked.
+         */
+        Object mask(ConnectRecord<?> record, JsonField field, Object payload);
+    }
+
+    /**
+     * One payload field, and the rules that apply to it.
+     */
+    static final class JsonField {
+        /**
+         * Position of the field in {@link #fields}.
+         */
+        final int index;
+
+        final String name;
+
+        /**
+         * The slice of the plan's rules that apply to this field.
+         */
+        final MaskingRule[] rules;
+
+        /**
+         * Index of {@code rules[0]} in the plan's rules.
+         */
+        final int ruleOffset;
+
+        final MaskingEngine engine;
+
+        /**
+         * null if {@code PREFILTER_ENABLED} is false, or the rules can not be prefiltered.
+         */
+        final Prefilter prefilter;
+
+        private JsonField(int index, String name, MaskingRule[] rules, int ruleOffset, MaskingEngine engine, Prefilter prefilter) {
+            this.index = index;
+            this.name = name;
+            this.rules = rules;
+            this.ruleOffset = ruleOffset;
+            this.engine = engine;
+            this.prefilter = prefilter;
+        }
+    }
+
+    private static final class Node {
+        final String name;
+        final List<Node> children = new ArrayList<>();
+        Node[] childArray;
+
+        /**
+         * null unless the node is a payload field.
+         */
+        JsonField field;
+
+        Node(String name) {
+            this.name = name;
+        }
+
+        Node child(String name) {
+            for (Node child : children) {
+                if (child.name.equals(name)) {
+                    return child;
+                }
+            }
+            Node child = new Node(name);
+            children.add(child);
+            return child;
+        }
+    }
+
+    final JsonField[] fields;
+    private final Node root;
+
+    private ConnectFields(JsonField[] fields, Node root) {
+        this.fields = fields;
+        this.root = root;
+    }
+
+    /**
+     * @param fieldPaths the paths of each field, as returned by {@link MaskJsonFieldConfig#connectFieldPaths()}
+     * @param rules the rules of all fields, in the same order
+     */
+    static ConnectFields compile(
+            MaskJsonFieldConfig config,
+            Map<String, List<ReplacementPath>> fieldPaths,
+            MaskingRule[] rules,
+            Tokenizer tokenizer,
+            PartialMask partialMask,
+            PiiDetectors detectors
+    ) {
+        JsonField[] fields = new JsonField[fieldPaths.size()];
+        Node root = new Node("");
+
+        int offset = 0;
+        int i = 0;
+        for (Map.Entry<String, List<ReplacementPath>> entry : fieldPaths.entrySet()) {
+            String name = entry.getKey();
+            MaskingRule[] fieldRules = Arrays.copyOfRange(rules, offset, offset + entry.getValue().size());
+            PathAutomaton automaton = PathAutomaton.compile(fieldRules);
+            JsonField field = new JsonField(
+                    i,
+                    name,
+                    fieldRules,
+                    offset,
+                    MaskingEngine.create(config.getString(MASKING_ENGINE), fieldRules, automaton, tokenizer, partialMask, detectors),
+                    config.getBoolean(PREFILTER_ENABLED) && detectors == null ? Prefilter.compile(fieldRules) : null
+            );
+
+            Node node = root;
+            for (String token : name.split("\\.")) {
+                if (node.field != null) {
+                    throw new ConfigException(CONNECT_FIELD_PATHS, name, "is inside the payload field " + node.field.name);
+                }
+                node = node.child(token);
+            }
+            if (!node.children.isEmpty()) {
+                throw new ConfigException(CONNECT_FIELD_PATHS, name, "has payload fields inside it");
+            }
+            node.field = field;
+
+            fields[i++] = field;
+            offset += fieldRules.length;
+        }
+        freeze(root);
+
+        return new ConnectFields(fields, root);
+    }
+
+    private static void freeze(Node node) {
+        node.childArray = node.children.toArray(new Node[0]);
+        for (Node child : node.childArray) {
+            freeze(child);
+        }
+    }
+
+    /**
+     * @return the masked copy of a Struct or Map, or {@code value} itself if nothing was masked.
+     */
+    Object mask(ConnectRecord<?> record, Object value, PayloadMasker masker) {
+        return maskChildren(record, value, root.childArray, masker);
+    }
+
+    private Object mask(ConnectRecord<?> record, Object value, Node node, PayloadMasker masker) {
+        if (node.field == null) {
+            return maskChildren(record, value, node.childArray, masker);
+        }
+        if (value instanceof ByteBuffer) {
+            byte[] payload = JsonMasker.bytes((ByteBuffer) value);
+            Object masked = masker.mask(record, node.field, payload);
+            return masked == payload ? value : masked;
+        }
+        if (value instanceof String || value instanceof byte[]) {
+            return masker.mask(record, node.field, value);
+        }
+        return value;
+    }
+
+    private Object maskChildren(ConnectRecord<?> record, Object value, Node[] children, PayloadMasker masker) {
+        if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            Struct copy = null;
+            for (Node child : children) {
+                Field field = struct.schema().field(child.name);
+                Object current = field != null ? struct.get(field) : null;
+                if (current == null) {
+                    continue;
+                }
+                Object masked = mask(record, current, child, masker);
+                if (masked != current) {
+                    if (copy == null) {
+                        copy = ConnectMasker.copyOf(struct);
+                    }
+                    copy.put(field, masked);
+                }
+            }
+            return copy != null ? copy : struct;
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Map<Object, Object> copy = null;
+            for (Node child : children) {
+                Object current = map.get(child.name);
+                if (current == null) {
+                    continue;
+                }
+                Object masked = mask(record, current, child, masker);
+                if (masked != current) {
+                    if (copy == null) {
+                        copy = new LinkedHashMap<>(map);
+                    }
+                    copy.put(child.name, masked);
+                }
+            }
+            return copy != null ? copy : map;
+        }
+        return value;
+    }
+}
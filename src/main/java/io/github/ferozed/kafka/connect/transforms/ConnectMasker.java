@@ -0,0 +1,181 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the values at the configured paths of a Connect data tree, for {@code MASKING_TARGET=CONNECT}.
+ * The paths address {@link Struct} fields, {@link Map} keys and {@link List} indexes directly, so nothing is
+ * serialized or parsed.
+ *
+ * The input is not modified. Only the structs, maps and lists on the path to a replaced value are copied,
+ * everything else is shared with the input.
+ *
+ * Strings and numbers are replaced with the rule's value of the same type, maps and lists with empty ones,
+ * and any other value with null. With a {@link Tokenizer} or a {@link PartialMask}, strings are
+ * replaced with their token or masked in part.
+ * A null replacement of a required struct field fails with a {@link org.apache.kafka.connect.errors.DataException}.
+ */
+final class ConnectMasker {
+    private final MaskingRule[] rules;
+    private final PathAutomaton automaton;
+    private final Tokenizer tokenizer;
+    private final PartialMask partialMask;
+
+    ConnectMasker(MaskingRule[] rules, PathAutomaton automaton, Tokenizer tokenizer, PartialMask partialMask) {
+        this.rules = rules;
+        this.automaton = automaton;
+        this.tokenizer = tokenizer;
+        this.partialMask = partialMask;
+    }
+
+    /**
+     * @return the masked value, or {@code value} itself if none of the paths matched.
+     */
+    Object mask(Object value, MaskingListener listener) {
+        PathAutomaton.State start = automaton.start;
+        if (start.accept >= 0) {
+            listener.matched(start.accept);
+            return replacementFor(value, rules[start.accept]);
+        }
+        return mask(value, start, listener);
+    }
+
+    private Object mask(Object value, PathAutomaton.State state, MaskingListener listener) {
+        if (value instanceof Struct) {
+            return maskStruct((Struct) value, state, listener);
+        } else if (value instanceof Map) {
+            return maskMap((Map<?, ?>) value, state, listener);
+        } else if (value instanceof List) {
+            return maskList((List<?>) value, state, listener);
+        }
+        return value;
+    }
+
+    private Struct maskStruct(Struct struct, PathAutomaton.State state, MaskingListener listener) {
+        Struct copy = null;
+        for (Field field : struct.schema().fields()) {
+            PathAutomaton.State child = state.property(field.name());
+            if (child.isDead()) {
+                continue;
+            }
+            Object value = struct.get(field);
+            Object masked = next(value, child, listener);
+            if (masked != value) {
+                if (copy == null) {
+                    copy = copyOf(struct);
+                }
+                copy.put(field, masked);
+            }
+        }
+        return copy != null ? copy : struct;
+    }
+
+    private Map<?, ?> maskMap(Map<?, ?> map, PathAutomaton.State state, MaskingListener listener) {
+        Map<Object, Object> copy = null;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            PathAutomaton.State child = state.property(String.valueOf(entry.getKey()));
+            if (child.isDead()) {
+                continue;
+            }
+            Object value = entry.getValue();
+            Object masked = next(value, child, listener);
+            if (masked != value) {
+                if (copy == null) {
+                    copy = new LinkedHashMap<>(map);
+                }
+                copy.put(entry.getKey(), masked);
+            }
+        }
+        return copy != null ? copy : map;
+    }
+
+    private List<?> maskList(List<?> list, PathAutomaton.State state, MaskingListener listener) {
+        List<Object> copy = null;
+        for (int i = 0; i < list.size(); i++) {
+            PathAutomaton.State child = state.index(i);
+            if (child.isDead()) {
+                continue;
+            }
+            Object value = list.get(i);
+            Object masked = next(value, child, listener);
+            if (masked != value) {
+                if (copy == null) {
+                    copy = new ArrayList<>(list);
+                }
+                copy.set(i, masked);
+            }
+        }
+        return copy != null ? copy : list;
+    }
+
+    private Object next(Object value, PathAutomaton.State child, MaskingListener listener) {
+        if (child.accept >= 0) {
+            listener.matched(child.accept);
+            return replacementFor(value, rules[child.accept]);
+        }
+        return mask(value, child, listener);
+    }
+
+    /**
+     * @return a shallow copy of the struct.
+     */
+    static Struct copyOf(Struct struct) {
+        Struct copy = new Struct(struct.schema());
+        for (Field field : struct.schema().fields()) {
+            Object value = struct.getWithoutDefault(field.name());
+            if (value != null) {
+                copy.put(field, value);
+            }
+        }
+        return copy;
+    }
+
+    private Object replacementFor(Object value, MaskingRule rule) {
+        if (value instanceof String) {
+            if (tokenizer != null) {
+                return tokenizer.token((String) value);
+            } else if (partialMask != null) {
+                return partialMask.mask((String) value);
+            }
+            return rule.replacementString;
+        } else if (value instanceof Integer) {
+            return rule.replacementInt;
+        } else if (value instanceof Long) {
+            return rule.replacementLong;
+        } else if (value instanceof Short) {
+            return (short) rule.replacementInt;
+        } else if (value instanceof Byte) {
+            return (byte) rule.replacementInt;
+        } else if (value instanceof Float) {
+            return rule.replacementFloat;
+        } else if (value instanceof Double) {
+            return rule.replacementDouble;
+        } else if (value instanceof Map) {
+            return new LinkedHashMap<>();
+        } else if (value instanceof List) {
+            return new ArrayList<>();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.kafka.common.config.ConfigException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Masks JSON payloads with the rules of {@link MaskJsonField}, without Kafka Connect records, for eg in a Kafka
+ * Streams application or a batch job.
+ *
+ * <pre>
+ * JsonMasker masker = JsonMasker.builder()
+ *         .paths("/ssn", "/cards/*&#47;number=XXXX")
+ *         .maskKeys("password")
+ *         .build();
+ * String masked = masker.mask(json);
+ * </pre>
+ *
+ * A masker is immutable and thread-safe. Build it once and share it: compiling the rules is much more expensive
+ * than masking a payload. A payload where nothing matched is returned as is, without a copy.
+ */
+public final class JsonMasker {
+    private final MaskingEngine engine;
+
+    /**
+     * null if {@code PREFILTER_ENABLED} is false, or the rules can not be prefiltered.
+     */
+    private final Prefilter prefilter;
+
+    private final MaskJsonFieldMetrics metrics;
+
+    /**
+     * {@link #metrics}, or {@link MaskingListener#NONE} if {@code METRICS_ENABLED} is false.
+     */
+    private final MaskingListener listener;
+
+    /**
+     * true if invalid payloads are returned as is, instead of throwing.
+     */
+    private final boolean passThrough;
+
+    JsonMasker(MaskingEngine engine, Prefilter prefilter, MaskJsonFieldMetrics metrics, MaskingListener listener, boolean passThrough) {
+        this.engine = engine;
+        this.prefilter = prefilter;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.passThrough = passThrough;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param json JSON document
+     * @return the masked document, or {@code json} itself if nothing was masked.
+     * @throws JsonMaskingException if the payload is not valid JSON, unless {@code FAILURE_POLICY} is {@code PASS_THROUGH}.
+     */
+    public String mask(String json) {
+        if (json == null || (prefilter != null && !prefiltered(prefilter.mightMatch(json)))) {
+            return json;
+        }
+        try {
+            String masked = engine.mask(json, listener);
+            return masked != null ? masked(masked) : notMatched(json);
+        } catch (IOException e) {
+            return parseFailed(json, e);
+        }
+    }
+
+    /**
+     * Masks a UTF-8 encoded document without decoding it to a {@link String}.
+     *
+     * @param json UTF-8 encoded JSON document
+     * @return the masked document, UTF-8 encoded, or {@code json} itself if nothing was masked.
+     * @throws JsonMaskingException if the payload is not valid JSON, unless {@code FAILURE_POLICY} is {@code PASS_THROUGH}.
+     */
+    public byte[] mask(byte[] json) {
+        if (json == null || (prefilter != null && !prefiltered(prefilter.mightMatch(json)))) {
+            return json;
+        }
+        try {
+            byte[] masked = engine.mask(json, listener);
+            return masked != null ? masked(masked) : notMatched(json);
+        } catch (IOException e) {
+            return parseFailed(json, e);
+        }
+    }
+
+    /**
+     * Masks the remaining bytes of a UTF-8 encoded document. The position of {@code json} is not changed.
+     *
+     * The document is parsed in place, so a direct or memory-mapped buffer is not copied unless it is masked.
+     *
+     * @param json UTF-8 encoded JSON document
+     * @return a buffer over the masked document, or {@code json} itself if nothing was masked.
+     * @throws JsonMaskingException if the payload is not valid JSON, unless {@code FAILURE_POLICY} is {@code PASS_THROUGH}.
+     */
+    public ByteBuffer mask(ByteBuffer json) {
+        if (json == null || (prefilter != null && !prefiltered(prefilter.mightMatch(json)))) {
+            return json;
+        }
+        try {
+            byte[] masked = engine.mask(json, listener);
+            return masked != null ? ByteBuffer.wrap(masked(masked)) : notMatched(json);
+        } catch (IOException e) {
+            return parseFailed(json, e);
+        }
+    }
+
+    /**
+     * @return the backing array of the buffer if the buffer covers all of it, else a copy of its remaining bytes.
+     * The position of {@code buffer} is not changed.
+     */
+    static byte[] bytes(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.limit() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @return the counters and latencies of this masker. They are not registered as an MBean.
+     */
+    public MaskJsonFieldMetrics metrics() {
+        return metrics;
+    }
+
+    private <T> T masked(T masked) {
+        metrics.masked();
+        return masked;
+    }
+
+    private <T> T notMatched(T payload) {
+        metrics.notMatched();
+        return payload;
+    }
+
+    /**
+     * Applies {@code FAILURE_POLICY} to a payload that could not be parsed.
+     *
+     * @return the payload, if it should be passed through as is.
+     * @throws JsonMaskingException if it should not.
+     */
+    private <T> T parseFailed(T payload, IOException e) {
+        metrics.parseFailed();
+        if (passThrough) {
+            return payload;
+        }
+        // the original message leaves out the location.
+        String reason = e instanceof JsonProcessingException
+                ? ((JsonProcessingException) e).getOriginalMessage()
+                : e.getClass().getSimpleName();
+        throw new JsonMaskingException("Could not parse the JSON payload: " + reason, e);
+    }
+
+    /**
+     * Counts the prefilter outcome.
+     *
+     * @return {@code mightMatch}
+     */
+    private boolean prefiltered(boolean mightMatch) {
+        if (mightMatch) {
+            metrics.prefilterHit();
+        } else {
+            metrics.prefilterSkip();
+        }
+        return mightMatch;
+    }
+
+    /**
+     * Collects the settings of a {@link JsonMasker}. They have the names, types and defaults of the
+     * {@link MaskJsonField} settings, so a masker built from a connector config masks exactly like the connector.
+     *
+     * The settings that address Connect records, {@code MASKING_TARGET=CONNECT} and {@code CONNECT_FIELD_PATHS}, are
+     * rejected. {@code CONNECT_FIELD_NAME}, the topic and header filters, and the other record level settings are
+     * ignored. {@code FAILURE_POLICY=TAG_HEADER} throws like {@code FAIL}.
+     */
+    public static final class Builder {
+        private final Map<String, Object> configs = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Sets all the settings of a {@link MaskJsonField} config, for eg the transform settings of a connector,
+         * without their {@code transforms.<name>.} prefix.
+         */
+        public Builder configs(Map<String, ?> configs) {
+            this.configs.putAll(configs);
+            return this;
+        }
+
+        /**
+         * Sets one {@link MaskJsonFieldConfig} setting.
+         */
+        public Builder set(String name, Object value) {
+            configs.put(name, value);
+            return this;
+        }
+
+        /**
+         * {@code REPLACEMENT_FIELD_PATHS}: pointers to mask, each with an optional {@code =<value>}.
+         */
+        public Builder paths(String... paths) {
+            return set(REPLACEMENT_FIELD_PATHS, Arrays.asList(paths));
+        }
+
+        /**
+         * {@code MASK_KEYS}: property names to mask at any depth.
+         */
+        public Builder maskKeys(String... keys) {
+            return set(MASK_KEYS, Arrays.asList(keys));
+        }
+
+        /**
+         * {@code DETECTORS}: kinds of PII to redact in any string value.
+         */
+        public Builder detectors(String... detectors) {
+            return set(DETECTORS, Arrays.asList(detectors));
+        }
+
+        /**
+         * {@code REPLACEMENT_VALUE_STRING}: what masked string values are replaced with.
+         */
+        public Builder replacement(String replacement) {
+            return set(REPLACEMENT_VALUE_STRING, replacement);
+        }
+
+        /**
+         * {@code MASKING_ENGINE}.
+         */
+        public Builder engine(String engine) {
+            return set(MASKING_ENGINE, engine);
+        }
+
+        /**
+         * Compiles the rules.
+         *
+         * @throws ConfigException if a setting is invalid, or addresses Connect records.
+         */
+        public JsonMasker build() {
+            MaskJsonFieldConfig config = new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs);
+            if (MASKING_TARGET_CONNECT.equals(config.getString(MASKING_TARGET))) {
+                throw new ConfigException(MASKING_TARGET, MASKING_TARGET_CONNECT, "is not supported by JsonMasker");
+            }
+            if (!config.getList(CONNECT_FIELD_PATHS).isEmpty()) {
+                throw new ConfigException(CONNECT_FIELD_PATHS, config.getList(CONNECT_FIELD_PATHS), "is not supported by JsonMasker");
+            }
+            MaskingPlan plan = MaskingPlan.compile(config);
+            MaskJsonFieldMetrics metrics = new MaskJsonFieldMetrics(plan.rules, plan.tokenizer);
+            return new JsonMasker(
+                    plan.engine,
+                    plan.prefilter,
+                    metrics,
+                    config.getBoolean(METRICS_ENABLED) ? metrics : MaskingListener.NONE,
+                    FAILURE_POLICY_PASS_THROUGH.equals(config.getString(FAILURE_POLICY))
+            );
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+/**
+ * Thrown by {@link JsonMasker} for a payload that is not valid JSON, unless {@code FAILURE_POLICY} is
+ * {@code PASS_THROUGH}. The message never quotes the payload.
+ */
+public class JsonMaskingException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public JsonMaskingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
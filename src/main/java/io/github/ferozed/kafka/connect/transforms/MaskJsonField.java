@@ -15,36 +15,73 @@
  */
 package io.github.ferozed.kafka.connect.transforms;
 
-import com.fasterxml.jackson.core.JsonPointer;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.*;
 import com.github.jcustenborder.kafka.connect.transform.common.BaseTransformation;
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.connect.connector.ConnectRecord;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaAndValue;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.header.Header;
 import org.apache.kafka.connect.header.Headers;
-
-import java.io.IOException;
-import java.math.BigInteger;
-import java.util.HashMap;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
 
 public class MaskJsonField<R extends ConnectRecord<R>> extends BaseTransformation<R> {
+    private static final Logger log = LoggerFactory.getLogger(MaskJsonField.class);
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
     MaskJsonFieldConfig config;
-    String replacementFieldPath;
-    String connectFieldName;
 
-    private Boolean isKey;
+    /**
+     * The plan, and what this instance derives from it. A {@code RULES_FILE} reload replaces it as a whole, and
+     * each record reads it once, so a record is masked with a single plan.
+     */
+    private volatile ActivePlan active;
+    private int batchParallelThreshold;
+
+    private MaskJsonFieldMetrics metrics;
+
+    /**
+     * null unless {@code RULES_FILE} is set.
+     */
+    RulesFile rulesFile;
+
+    /**
+     * null if {@code AUDIT_SAMPLE_RATE} is 0.
+     */
+    private PayloadAuditor auditor;
+    private MaskingListener listener = MaskingListener.NONE;
 
-    static final ObjectMapper mapper = new ObjectMapper();
+    private long slowRecordThresholdNanos;
+    private String failurePolicy;
+    private String failureHeader;
+
+    /**
+     * null unless {@code MASKED_HEADER} is set.
+     */
+    private String maskedHeader;
+    ObjectName metricsName;
+
+    private Boolean isKey;
 
     private MaskJsonField(Boolean isKey) {
         this.isKey = isKey;
@@ -65,10 +102,38 @@ public class MaskJsonField<R extends ConnectRecord<R>> extends BaseTransformatio
      */
     @Override
     public R apply(R r) {
+        ActivePlan active = this.active;
+        RecordFilter filter = active.plan.filter;
+        if (filter != null && !filter.matches(r)) {
+            metrics.filtered();
+            return r;
+        }
+        if (maskedHeader != null && isStamped(r, active.maskedStamp)) {
+            metrics.alreadyMasked();
+            return r;
+        }
 
-        if (isKey) {
-            final SchemaAndValue transformed = process(r, r.keySchema(), r.key());
+        Object input = isKey ? r.key() : r.value();
+        final SchemaAndValue transformed;
+        try {
+            transformed = process(r, active, isKey ? r.keySchema() : r.valueSchema(), input);
+        } catch (DataException e) {
+            if (!FAILURE_POLICY_TAG_HEADER.equals(failurePolicy)) {
+                throw e;
+            }
+            return tagged(r, e);
+        }
+
+        if (maskedHeader != null) {
+            return stamped(r, active.maskedStamp, transformed);
+        }
+
+        if (transformed.value() == input) {
+            // nothing was masked.
+            return r;
+        }
 
+        if (isKey) {
             return r.newRecord(
                     r.topic(),
                     r.kafkaPartition(),
@@ -79,8 +144,6 @@ public class MaskJsonField<R extends ConnectRecord<R>> extends BaseTransformatio
                     r.timestamp()
             );
         } else {
-            final SchemaAndValue transformed = process(r, r.valueSchema(), r.value());
-
             return r.newRecord(
                     r.topic(),
                     r.kafkaPartition(),
@@ -93,6 +156,141 @@ public class MaskJsonField<R extends ConnectRecord<R>> extends BaseTransformatio
         }
     }
 
+    /**
+     * @return true if one of the {@code MASKED_HEADER} headers says that the record was processed with the same
+     * masking settings.
+     */
+    private boolean isStamped(R r, String maskedStamp) {
+        for (Iterator<Header> headers = r.headers().allWithName(maskedHeader); headers.hasNext(); ) {
+            if (maskedStamp.equals(headers.next().value())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the transformed record, with a {@code MASKED_HEADER} header. It is added even if nothing was masked,
+     * so that a replay of the record is skipped too.
+     */
+    private R stamped(R r, String maskedStamp, SchemaAndValue transformed) {
+        Headers headers = r.headers().duplicate();
+        headers.addString(maskedHeader, maskedStamp);
+        return r.newRecord(
+                r.topic(),
+                r.kafkaPartition(),
+                isKey ? transformed.schema() : r.keySchema(),
+                isKey ? transformed.value() : r.key(),
+                isKey ? r.valueSchema() : transformed.schema(),
+                isKey ? r.value() : transformed.value(),
+                r.timestamp(),
+                headers
+        );
+    }
+
+    /**
+     * @return the record as is, with a {@code FAILURE_HEADER} header that says why it could not be masked.
+     */
+    private R tagged(R r, DataException e) {
+        Headers headers = r.headers().duplicate();
+        headers.addString(failureHeader, e.getMessage());
+        return r.newRecord(
+                r.topic(),
+                r.kafkaPartition(),
+                r.keySchema(),
+                r.key(),
+                r.valueSchema(),
+                r.value(),
+                r.timestamp(),
+                headers
+        );
+    }
+
+    /**
+     * Dispatches like {@link BaseTransformation#process(ConnectRecord, Schema, Object)}, but with the plan that the
+     * record started with. Types that can not hold JSON go to the base class, which rejects them.
+     */
+    @SuppressWarnings("unchecked")
+    private SchemaAndValue process(R r, ActivePlan active, Schema schema, Object input) {
+        if (input instanceof Map) {
+            return processMap(r, active, (Map<String, Object>) input);
+        }
+        Schema.Type type = schema != null ? schema.type() : null;
+        if (input instanceof Struct && (type == null || type == Schema.Type.STRUCT)) {
+            return processStruct(r, active, schema != null ? schema : ((Struct) input).schema(), (Struct) input);
+        }
+        if (input instanceof String && (type == null || type == Schema.Type.STRING)) {
+            return processString(r, active, schema != null ? schema : Schema.STRING_SCHEMA, (String) input);
+        }
+        if (input instanceof byte[] && (type == null || type == Schema.Type.BYTES)) {
+            return processBytes(r, active, schema != null ? schema : Schema.BYTES_SCHEMA, (byte[]) input);
+        }
+        return process(r, schema, input);
+    }
+
+    /**
+     * Apply the transformation to every record of a batch, for eg from a sink task's {@code put()}.
+     *
+     * If the batch has at least {@code BATCH_PARALLEL_THRESHOLD} records, it is split into contiguous chunks of
+     * at most {@code size / parallelism} records, which are masked in parallel on the common {@link ForkJoinPool}.
+     * Each worker reuses its buffers for all the records of a chunk.
+     *
+     * @param records Connect Records
+     * @return the transformed records, in the same order as {@code records}
+     */
+    @SuppressWarnings("unchecked")
+    public List<R> applyBatch(List<R> records) {
+        Object[] transformed = new Object[records.size()];
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        if (batchParallelThreshold > 0 && transformed.length >= batchParallelThreshold && pool.getParallelism() > 1) {
+            int chunk = (transformed.length + pool.getParallelism() - 1) / pool.getParallelism();
+            pool.invoke(new BatchTask(records, transformed, 0, transformed.length, chunk));
+        } else {
+            for (int i = 0; i < transformed.length; i++) {
+                transformed[i] = apply(records.get(i));
+            }
+        }
+
+        return (List<R>) (List<?>) Arrays.asList(transformed);
+    }
+
+    /**
+     * Masks {@code records[from, to)}, splitting in halves until a range is no larger than a chunk.
+     */
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<R> records;
+        private final Object[] transformed;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        BatchTask(List<R> records, Object[] transformed, int from, int to, int chunk) {
+            this.records = records;
+            this.transformed = transformed;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                for (int i = from; i < to; i++) {
+                    transformed[i] = apply(records.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new BatchTask(records, transformed, from, middle, chunk),
+                    new BatchTask(records, transformed, middle, to, chunk)
+            );
+        }
+    }
+
     /**
      * Configuration specification for this transformation.
      **/
@@ -106,7 +304,23 @@ public class MaskJsonField<R extends ConnectRecord<R>> extends BaseTransformatio
      **/
     @Override
     public void close() {
+        unregisterMetrics();
+        closeAuditor();
+        closeRulesFile();
+    }
 
+    private void closeRulesFile() {
+        if (rulesFile != null) {
+            rulesFile.close();
+            rulesFile = null;
+        }
+    }
+
+    private void closeAuditor() {
+        if (auditor != null) {
+            auditor.close();
+            auditor = null;
+        }
     }
 
     /**
@@ -117,18 +331,138 @@ public class MaskJsonField<R extends ConnectRecord<R>> extends BaseTransformatio
     @Override
     public void configure(Map<String, ?> configs) {
         this.config = new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs);
-        this.replacementFieldPath = this.config.getString(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH);
-        this.connectFieldName = this.config.getString(CONNECT_FIELD_NAME);
+        closeRulesFile();
+        this.rulesFile = RulesFile.open(this.config);
+        MaskingPlan plan = rulesFile != null ? rulesFile.plan() : MaskingPlan.compile(this.config);
+        this.batchParallelThreshold = this.config.getInt(BATCH_PARALLEL_THRESHOLD);
+        this.slowRecordThresholdNanos = TimeUnit.MILLISECONDS.toNanos(this.config.getLong(SLOW_RECORD_THRESHOLD_MS));
+        this.failurePolicy = this.config.getString(FAILURE_POLICY);
+        this.failureHeader = this.config.getString(FAILURE_HEADER);
+        String maskedHeader = this.config.getString(MASKED_HEADER);
+        this.maskedHeader = maskedHeader.isEmpty() ? null : maskedHeader;
+
+        unregisterMetrics();
+        this.metrics = new MaskJsonFieldMetrics(plan.rules, plan.tokenizer);
+        if (this.config.getBoolean(METRICS_ENABLED)) {
+            this.listener = metrics;
+            registerMetrics();
+        } else {
+            this.listener = MaskingListener.NONE;
+        }
+        closeAuditor();
+        this.auditor = PayloadAuditor.create(this.config, metrics);
+        this.active = new ActivePlan(plan);
+        if (rulesFile != null) {
+            rulesFile.watch(this::reloaded, metrics);
+        }
+    }
+
+    /**
+     * Publishes a plan compiled from a changed {@code RULES_FILE}. Records already being masked finish with the
+     * previous plan.
+     */
+    private void reloaded(MaskingPlan plan) {
+        metrics.rules(plan.rules, plan.tokenizer);
+        this.active = new ActivePlan(plan);
+    }
+
+    /**
+     * @return the plan that new records are masked with.
+     */
+    MaskingPlan plan() {
+        return active.plan;
+    }
+
+    /**
+     * The plan, with the per-plan state of this instance.
+     */
+    private final class ActivePlan {
+        final MaskingPlan plan;
+        final StructAccessor.Cache structAccessors;
+
+        final JsonMasker masker;
+
+        /**
+         * The masker of each {@code CONNECT_FIELD_PATHS} field, which reports its rules at their index in the plan.
+         */
+        final JsonMasker[] connectFieldMaskers;
+
+        final ConnectFields.PayloadMasker payloadMasker = this::maskPayload;
+
+        final String maskedStamp;
+
+        ActivePlan(MaskingPlan plan) {
+            this.plan = plan;
+            this.structAccessors = new StructAccessor.Cache(plan.connectFieldTokens);
+            boolean passThrough = FAILURE_POLICY_PASS_THROUGH.equals(failurePolicy);
+            this.masker = new JsonMasker(plan.engine, plan.prefilter, metrics, listener, passThrough);
+            if (plan.connectFields != null) {
+                ConnectFields.JsonField[] fields = plan.connectFields.fields;
+                this.connectFieldMaskers = new JsonMasker[fields.length];
+                for (ConnectFields.JsonField field : fields) {
+                    connectFieldMaskers[field.index] = new JsonMasker(
+                            field.engine, field.prefilter, metrics, listener.offset(field.ruleOffset), passThrough);
+                }
+            } else {
+                this.connectFieldMaskers = null;
+            }
+            // the key and value transforms may share the header name, so the stamp says which side it is for.
+            this.maskedStamp = plan.fingerprint + (isKey ? "-key" : "-value");
+        }
+
+        /**
+         * Masks the payload of one {@code CONNECT_FIELD_PATHS} field, a String or UTF-8 bytes.
+         */
+        private Object maskPayload(ConnectRecord<?> record, ConnectFields.JsonField field, Object payload) {
+            JsonMasker masker = connectFieldMaskers[field.index];
+            return payload instanceof String
+                    ? replaceJsonWithPaths(record, masker, (String) payload)
+                    : replaceJsonWithPaths(record, masker, (byte[]) payload);
+        }
+    }
+
+    private void registerMetrics() {
+        try {
+            metricsName = new ObjectName(
+                    "io.github.ferozed.kafka.connect.transforms:type=MaskJsonField,side=" + (isKey ? "key" : "value") +
+                            ",id=" + INSTANCES.incrementAndGet()
+            );
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, metricsName);
+        } catch (JMException e) {
+            log.warn("Could not register the metrics MBean.", e);
+            metricsName = null;
+        }
+    }
+
+    private void unregisterMetrics() {
+        if (metricsName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+        } catch (JMException e) {
+            log.warn("Could not unregister the metrics MBean {}.", metricsName, e);
+        }
+        metricsName = null;
     }
 
     @Override
     protected SchemaAndValue processString(ConnectRecord record, Schema inputSchema, String input) {
+        return processString(record, active, inputSchema, input);
+    }
+
+    private SchemaAndValue processString(ConnectRecord<?> record, ActivePlan active, Schema inputSchema, String input) {
+        MaskingPlan plan = active.plan;
+        if (plan.connectFields != null) {
+            // a plain payload has none of the fields.
+            return new SchemaAndValue(inputSchema, input);
+        }
         if (isKey) {
             String value = (String) record.key();
 
             Schema valueSchema = record.keySchema();
 
-            String replacementString = replaceJsonWithPath(value, this.replacementFieldPath);
+            String replacementString = replaceJsonWithPaths(record, active.masker, value);
 
             return new SchemaAndValue(Schema.STRING_SCHEMA, replacementString);
         } else {
@@ -136,7 +470,7 @@ public class MaskJsonField<R extends ConnectRecord<R>> extends BaseTransformatio
 
             Schema valueSchema = record.valueSchema();
 
-            String replacementString = replaceJsonWithPath(value, this.replacementFieldPath);
+            String replacementString = replaceJsonWithPaths(record, active.masker, value);
 
             return new SchemaAndValue(Schema.STRING_SCHEMA, replacementString);
         }
@@ -145,85 +479,186 @@ public class MaskJsonField<R extends ConnectRecord<R>> extends BaseTransformatio
 
     @Override
     protected SchemaAndValue processStruct(ConnectRecord record, Schema inputSchema, Struct input) {
+        return processStruct(record, active, inputSchema, input);
+    }
+
+    private SchemaAndValue processStruct(ConnectRecord<?> record, ActivePlan active, Schema inputSchema, Struct input) {
+        MaskingPlan plan = active.plan;
+        if (plan.connectMasker != null) {
+            return new SchemaAndValue(inputSchema, maskConnectValue(record, plan, input));
+        }
+        if (plan.connectFields != null) {
+            return new SchemaAndValue(inputSchema, plan.connectFields.mask(record, input, active.payloadMasker));
+        }
+
         // get the json serialized field from connect record.
 
-        String [] tokens = connectFieldName.split("\\.");
-        String json = null;
-        Struct struct = input;
-        for(int i = 0; i < tokens.length; i++) {
-            String field = tokens[i];
+        StructAccessor accessor = active.structAccessors.get(input.schema());
+        if (accessor == null) {
+            throw unresolvedField(active, input.schema());
+        }
 
-            if (i == tokens.length - 1) {
-                json = struct.getString(field);
-                String replacement = replaceJsonWithPath(json, this.replacementFieldPath);
-                struct.put(field, replacement);
-            } else {
-                struct = struct.getStruct(field);
-            }
+        Struct struct = accessor.parent(input);
+        if (struct == null) {
+            return new SchemaAndValue(inputSchema, input);
         }
 
-        if (json == null || json.trim().length() ==0) {
+        Object json = struct.get(accessor.field);
+        Object masked;
+        if (json == null) {
             return new SchemaAndValue(inputSchema, input);
+        } else if (accessor.isBytes()) {
+            byte[] payload = json instanceof ByteBuffer ? JsonMasker.bytes((ByteBuffer) json) : (byte[]) json;
+            byte[] maskedPayload = replaceJsonWithPaths(record, active.masker, payload);
+            masked = maskedPayload == payload ? json : maskedPayload;
+        } else {
+            masked = replaceJsonWithPaths(record, active.masker, (String) json);
         }
 
-        return new SchemaAndValue(inputSchema, input);
+        // the input is not modified, only the structs on the path are copied.
+        return new SchemaAndValue(inputSchema, masked == json ? input : accessor.with(input, masked));
+    }
+
+    /**
+     * @return the error for a schema where {@code CONNECT_FIELD_NAME} does not lead to a STRING or BYTES field.
+     */
+    private DataException unresolvedField(ActivePlan active, Schema schema) {
+        return new DataException(
+                CONNECT_FIELD_NAME + " " + String.join(".", active.plan.connectFieldTokens) +
+                        " is not a STRING or BYTES field of the schema " + (schema.name() != null ? schema.name() : schema));
     }
 
-    private String replaceJsonWithPath(
-            String payload,
-            String path
-    ) {
+    /**
+     * Masks the payload with the record's {@link JsonMasker}. Times it for {@code SLOW_RECORD_THRESHOLD_MS}, and
+     * samples the result for the auditor.
+     *
+     * @throws DataException if the payload is not valid JSON, and {@code FAILURE_POLICY} is not {@code PASS_THROUGH}.
+     */
+    private String replaceJsonWithPaths(ConnectRecord<?> record, JsonMasker masker, String payload) {
+        long start = slowRecordThresholdNanos > 0 ? System.nanoTime() : 0;
+        String masked;
         try {
-            JsonNode replacementNode = replaceWithPointer(payload, path);
-            return mapper.writeValueAsString(replacementNode);
-        } catch (IOException e) {
-            return payload;
+            masked = masker.mask(payload);
+        } catch (JsonMaskingException e) {
+            throw new DataException(e.getMessage(), e);
+        } finally {
+            checkSlowRecord(record, start);
+        }
+        if (auditor != null) {
+            auditor.sample(record, masked);
         }
+        return masked;
     }
 
-    private JsonNode replaceWithPointer(
-            String payload,
-            String path
-    ) throws IOException {
-        JsonPointer pointer = JsonPointer.compile(path);
-
-        JsonNode root = null;
-        root = mapper.readTree(payload);
-
-        JsonNode targetNode = root.at(pointer);
-
-        if(targetNode.isMissingNode()) {
-            throw new IOException("Pointer did not match");
+    private byte[] replaceJsonWithPaths(ConnectRecord<?> record, JsonMasker masker, byte[] payload) {
+        long start = slowRecordThresholdNanos > 0 ? System.nanoTime() : 0;
+        byte[] masked;
+        try {
+            masked = masker.mask(payload);
+        } catch (JsonMaskingException e) {
+            throw new DataException(e.getMessage(), e);
+        } finally {
+            checkSlowRecord(record, start);
+        }
+        if (auditor != null) {
+            auditor.sample(record, masked);
         }
-        JsonNode parentNode = root.at(pointer.head());
+        return masked;
+    }
 
-        JsonNode replacementNode = null;
-        if (targetNode.isTextual()) {
-            replacementNode = TextNode.valueOf(config.getString(REPLACEMENT_VALUE_STRING));
-        } else if (targetNode.isInt()) {
-            replacementNode = IntNode.valueOf(config.getInt(REPLACEMENT_VALUE_INT));
-        } else if (targetNode.isLong()) {
-            replacementNode = LongNode.valueOf(config.getLong(REPLACEMENT_VALUE_LONG));
-        } else if (targetNode.isBigInteger()) {
-            BigInteger bi = BigInteger.valueOf(config.getInt(REPLACEMENT_VALUE_INT));
-            replacementNode = BigIntegerNode.valueOf(bi);
-        } else if (targetNode.isFloat()) {
-            replacementNode = FloatNode.valueOf(config.getDouble(REPLACEMENT_VALUE_INT).floatValue());
-        } else if (targetNode.isDouble()) {
-            replacementNode = DoubleNode.valueOf(config.getDouble(REPLACEMENT_VALUE_DOUBLE));
-        } else if (targetNode.isArray()) {
-            replacementNode = mapper.createArrayNode();
-        } else if (targetNode.isObject()) {
-            replacementNode = mapper.createObjectNode();
+    /**
+     * Masks the fields of a Struct or Map record, for {@code MASKING_TARGET=CONNECT}.
+     *
+     * @return the masked copy, or {@code value} itself if no path matched.
+     */
+    private Object maskConnectValue(ConnectRecord<?> record, MaskingPlan plan, Object value) {
+        long start = slowRecordThresholdNanos > 0 || listener != MaskingListener.NONE ? System.nanoTime() : 0;
+        try {
+            Object masked = plan.connectMasker.mask(value, listener);
+            if (listener != MaskingListener.NONE) {
+                listener.mutated(System.nanoTime() - start);
+            }
+            if (masked == value) {
+                metrics.notMatched();
+            } else {
+                metrics.masked();
+            }
+            return masked;
+        } finally {
+            checkSlowRecord(record, start);
         }
+    }
 
-        if (parentNode.isObject()) {
-            ((ObjectNode)parentNode).set(pointer.last().getMatchingProperty(), replacementNode);
-        } else if (parentNode.isArray()) {
-            ((ArrayNode)parentNode).set(pointer.last().getMatchingIndex(), replacementNode);
+    /**
+     * Logs the record if it took longer than {@code SLOW_RECORD_THRESHOLD_MS}. At most one record is logged per second.
+     */
+    private void checkSlowRecord(ConnectRecord<?> record, long start) {
+        if (slowRecordThresholdNanos <= 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        if (nanos >= slowRecordThresholdNanos && metrics.slowRecord()) {
+            log.warn(
+                    "Masking took {} ms. topic={} partition={} offset={} slowRecords={}",
+                    TimeUnit.NANOSECONDS.toMillis(nanos),
+                    record.topic(),
+                    record.kafkaPartition(),
+                    offsetOf(record),
+                    metrics.getSlowRecords()
+            );
         }
+    }
+
+    /**
+     * @return the Kafka offset of a sink record, the source offset of a source record, for logs.
+     */
+    static Object offsetOf(ConnectRecord<?> record) {
+        return record instanceof SinkRecord ? ((SinkRecord) record).kafkaOffset()
+                : record instanceof SourceRecord ? ((SourceRecord) record).sourceOffset() : null;
+    }
+
+    /**
+     * @return the metrics of this instance.
+     */
+    public MaskJsonFieldMetrics metrics() {
+        return metrics;
+    }
 
-        return root;
+    /**
+     * @return number of payloads that the prefilter passed on to the masking engine.
+     */
+    public long getPrefilterHits() {
+        return metrics.getPrefilterHits();
+    }
+
+    /**
+     * @return number of payloads that the prefilter left as is, without parsing them.
+     */
+    public long getPrefilterSkips() {
+        return metrics.getPrefilterSkips();
+    }
+
+    /**
+     * Handles a raw UTF-8 payload, for eg when the connector uses a {@code ByteArrayConverter}.
+     * The payload is parsed and written as UTF-8, without being decoded to a {@link String}.
+     *
+     * @param record ConnectRecord
+     * @param inputSchema BYTES schema
+     * @param input UTF-8 encoded JSON payload
+     * @return SchemaAndValue after processing
+     */
+    @Override
+    protected SchemaAndValue processBytes(R record, Schema inputSchema, byte[] input) {
+        return processBytes(record, active, inputSchema, input);
+    }
+
+    private SchemaAndValue processBytes(R record, ActivePlan active, Schema inputSchema, byte[] input) {
+        if (active.plan.connectFields != null) {
+            return new SchemaAndValue(inputSchema, input);
+        }
+        return new SchemaAndValue(
+                isKey ? record.keySchema() : record.valueSchema(),
+                replaceJsonWithPaths(record, active.masker, input));
     }
 
     /***
@@ -233,35 +668,58 @@ public class MaskJsonField<R extends ConnectRecord<R>> extends BaseTransformatio
      * In this case, the `schema` field in connect record will be null,
      * and the value field will be a %lt;String,Object&gt;
      *
+     * With {@code MASKING_TARGET=CONNECT}, the paths address the map itself instead of a JSON string in it.
+     *
      * @param record ConnectRecord
      * @param value Kafka topic record as a map.
      * @return SchemaAndValue after processing
      */
     @Override
     protected SchemaAndValue processMap(R record, Map<String, Object> value) {
-        Map<String, Object> input = value;
-        String [] tokens = connectFieldName.split("\\.");
-        try {
-            for(int i = 0; i < tokens.length; i++) {
-                String field = tokens[i];
-
-                if (i == tokens.length - 1) {
-                    String json = (String)input.get(field);
-                    JsonNode replacement = replaceWithPointer(json, this.replacementFieldPath);
-                    input.put(field, mapper.writeValueAsString(replacement));
-                } else {
-                    input = (Map<String,Object>)input.get(field);
-                }
-            }
-        } catch (JsonProcessingException e) {
-            //throw new RuntimeException(e);
-        } catch (IOException e) {
-            //throw new RuntimeException(e);
+        return processMap(record, active, value);
+    }
+
+    private SchemaAndValue processMap(R record, ActivePlan active, Map<String, Object> value) {
+        MaskingPlan plan = active.plan;
+        if (plan.connectMasker != null) {
+            return new SchemaAndValue(
+                    isKey ? record.keySchema() : record.valueSchema(),
+                    maskConnectValue(record, plan, value));
+        }
+        if (plan.connectFields != null) {
+            return new SchemaAndValue(
+                    isKey ? record.keySchema() : record.valueSchema(),
+                    plan.connectFields.mask(record, value, active.payloadMasker));
         }
 
         return new SchemaAndValue(
                 isKey ? record.keySchema() : record.valueSchema(),
-                value);
+                maskMapField(record, active, value, 0));
+    }
+
+    /**
+     * Masks the JSON string at {@code CONNECT_FIELD_NAME} below {@code map}.
+     *
+     * @return {@code map} itself if nothing was masked, else a copy. Only the maps on the path are copied.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> maskMapField(R record, ActivePlan active, Map<String, Object> map, int depth) {
+        String[] tokens = active.plan.connectFieldTokens;
+        Object value = map.get(tokens[depth]);
+        Object masked;
+        if (value == null) {
+            return map;
+        } else if (depth == tokens.length - 1) {
+            masked = replaceJsonWithPaths(record, active.masker, (String) value);
+        } else {
+            masked = maskMapField(record, active, (Map<String, Object>) value, depth + 1);
+        }
+        if (masked == value) {
+            return map;
+        }
+        Map<String, Object> copy = new LinkedHashMap<>(map);
+        copy.put(tokens[depth], masked);
+        return copy;
     }
 
     public static class Key<R extends ConnectRecord<R>> extends MaskJsonField<R> {
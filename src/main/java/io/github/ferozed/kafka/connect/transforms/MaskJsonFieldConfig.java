@@ -18,20 +18,89 @@ package io.github.ferozed.kafka.connect.transforms;
 import com.github.jcustenborder.kafka.connect.utils.config.ConfigKeyBuilder;
 import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
-import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.common.config.ConfigException;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class MaskJsonFieldConfig extends AbstractConfig {
 
     public static final String REPLACEMENT_FIELD_PATH = "REPLACEMENT_FIELD_PATH";
+    public static final String REPLACEMENT_FIELD_PATHS = "REPLACEMENT_FIELD_PATHS";
+    public static final String MASK_KEYS = "MASK_KEYS";
+    public static final String DETECTORS = "DETECTORS";
+    public static final String DETECTOR_SSN = "SSN";
+    public static final String DETECTOR_PAN = "PAN";
+    public static final String DETECTOR_EMAIL = "EMAIL";
+    public static final String DETECTOR_PHONE = "PHONE";
+    public static final String DETECTOR_REPLACEMENT = "DETECTOR_REPLACEMENT";
     public static final String CONNECT_FIELD_NAME = "CONNECT_FIELD_NAME";
+    public static final String CONNECT_FIELD_PATHS = "CONNECT_FIELD_PATHS";
 
     public static final String REPLACEMENT_VALUE_STRING = "REPLACEMENT_VALUE_STRING";
     public static final String REPLACEMENT_VALUE_INT = "REPLACEMENT_VALUE_INT";
     public static final String REPLACEMENT_VALUE_LONG = "REPLACEMENT_VALUE_LONG";
     public static final String REPLACEMENT_VALUE_DOUBLE = "REPLACEMENT_VALUE_DOUBLE";
 
+    public static final String REPLACEMENT_MODE = "REPLACEMENT_MODE";
+    public static final String REPLACEMENT_MODE_CONSTANT = "CONSTANT";
+    public static final String REPLACEMENT_MODE_HMAC = "HMAC";
+    public static final String REPLACEMENT_MODE_PARTIAL = "PARTIAL";
+    public static final String HMAC_KEY = "HMAC_KEY";
+    public static final String HMAC_ALGORITHM = "HMAC_ALGORITHM";
+    public static final String TOKEN_CACHE_SIZE = "TOKEN_CACHE_SIZE";
+    public static final String PARTIAL_KEEP_FIRST = "PARTIAL_KEEP_FIRST";
+    public static final String PARTIAL_KEEP_LAST = "PARTIAL_KEEP_LAST";
+    public static final String PARTIAL_MASK_CHAR = "PARTIAL_MASK_CHAR";
+    public static final String PARTIAL_PRESERVE_SEPARATORS = "PARTIAL_PRESERVE_SEPARATORS";
+
+    public static final String MASKING_ENGINE = "MASKING_ENGINE";
+    public static final String MASKING_ENGINE_TREE = "TREE";
+    public static final String MASKING_ENGINE_STREAMING = "STREAMING";
+    public static final String MASKING_ENGINE_SPLICE = "SPLICE";
+    public static final String MASKING_TARGET = "MASKING_TARGET";
+    public static final String MASKING_TARGET_JSON = "JSON";
+    public static final String MASKING_TARGET_CONNECT = "CONNECT";
+    public static final String PREFILTER_ENABLED = "PREFILTER_ENABLED";
+    public static final String TOPIC_INCLUDE_PATTERN = "TOPIC_INCLUDE_PATTERN";
+    public static final String TOPIC_INCLUDE_PREFIXES = "TOPIC_INCLUDE_PREFIXES";
+    public static final String TOPIC_EXCLUDE_PATTERN = "TOPIC_EXCLUDE_PATTERN";
+    public static final String HEADER_INCLUDE = "HEADER_INCLUDE";
+    public static final String HEADER_EXCLUDE = "HEADER_EXCLUDE";
+    public static final String RULES_FILE = "RULES_FILE";
+    public static final String RULES_FILE_POLL_MS = "RULES_FILE_POLL_MS";
+    public static final String BATCH_PARALLEL_THRESHOLD = "BATCH_PARALLEL_THRESHOLD";
+    public static final String FAILURE_POLICY = "FAILURE_POLICY";
+    public static final String FAILURE_POLICY_PASS_THROUGH = "PASS_THROUGH";
+    public static final String FAILURE_POLICY_FAIL = "FAIL";
+    public static final String FAILURE_POLICY_TAG_HEADER = "TAG_HEADER";
+    public static final String FAILURE_HEADER = "FAILURE_HEADER";
+    public static final String MASKED_HEADER = "MASKED_HEADER";
+    public static final String AUDIT_SAMPLE_RATE = "AUDIT_SAMPLE_RATE";
+    public static final String AUDIT_QUEUE_SIZE = "AUDIT_QUEUE_SIZE";
+    public static final String AUDIT_DETECTORS = "AUDIT_DETECTORS";
+    public static final String METRICS_ENABLED = "METRICS_ENABLED";
+    public static final String SLOW_RECORD_THRESHOLD_MS = "SLOW_RECORD_THRESHOLD_MS";
+
+    /**
+     * The settings that a {@code RULES_FILE} can set: the ones that are compiled into the masking plan.
+     */
+    static final Set<String> RULES_FILE_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            REPLACEMENT_FIELD_PATH, REPLACEMENT_FIELD_PATHS, MASK_KEYS, DETECTORS, DETECTOR_REPLACEMENT,
+            CONNECT_FIELD_NAME, CONNECT_FIELD_PATHS,
+            REPLACEMENT_VALUE_STRING, REPLACEMENT_VALUE_INT, REPLACEMENT_VALUE_LONG, REPLACEMENT_VALUE_DOUBLE,
+            REPLACEMENT_MODE, HMAC_KEY, HMAC_ALGORITHM, TOKEN_CACHE_SIZE,
+            PARTIAL_KEEP_FIRST, PARTIAL_KEEP_LAST, PARTIAL_MASK_CHAR, PARTIAL_PRESERVE_SEPARATORS,
+            MASKING_ENGINE, MASKING_TARGET, PREFILTER_ENABLED,
+            TOPIC_INCLUDE_PATTERN, TOPIC_INCLUDE_PREFIXES, TOPIC_EXCLUDE_PATTERN, HEADER_INCLUDE, HEADER_EXCLUDE
+    )));
+
     /**
      * Construct a configuration with a ConfigDef and the configuration properties,
      * which can include properties for zero or more {@link ConfigDef}
@@ -44,16 +113,99 @@ public class MaskJsonFieldConfig extends AbstractConfig {
         super(definition, originals);
     }
 
+    /**
+     * Returns the pointers that should be masked.
+     *
+     * If {@code REPLACEMENT_FIELD_PATHS}, {@code MASK_KEYS} and {@code DETECTORS} are empty, this is just
+     * {@code REPLACEMENT_FIELD_PATH}.
+     * Otherwise it is the list, plus {@code REPLACEMENT_FIELD_PATH} if that was set explicitly, plus a
+     * {@code **}{@code /<name>} path for each of the {@code MASK_KEYS}.
+     *
+     * @return pointers to mask, in the order they should be applied.
+     */
+    public List<ReplacementPath> replacementPaths() {
+        List<ReplacementPath> paths = new ArrayList<>();
+        List<String> entries = getList(REPLACEMENT_FIELD_PATHS);
+        List<String> keys = getList(MASK_KEYS);
+
+        if ((entries.isEmpty() && keys.isEmpty() && getList(DETECTORS).isEmpty()) || originals().containsKey(REPLACEMENT_FIELD_PATH)) {
+            paths.add(new ReplacementPath(getString(REPLACEMENT_FIELD_PATH), null));
+        }
+        for (String entry : entries) {
+            paths.add(ReplacementPath.parse(entry));
+        }
+        for (String key : keys) {
+            if (key.isEmpty() || PathAutomaton.ANY.equals(key) || PathAutomaton.ANY_DEPTH.equals(key)) {
+                throw new ConfigException(MASK_KEYS, key, "Key must not be empty, '*' or '**'");
+            }
+            // escaped as a JsonPointer segment.
+            paths.add(new ReplacementPath(PathAutomaton.ANY_DEPTH + "/" + key.replace("~", "~0").replace("/", "~1"), null));
+        }
+        return Collections.unmodifiableList(paths);
+    }
+
+    /**
+     * Returns the pointers of each {@code CONNECT_FIELD_PATHS} field. Each entry is
+     * {@code <field>:<pointer>[=<value>]}, where the field is a dotted path like {@code CONNECT_FIELD_NAME}.
+     *
+     * @return pointers to mask by field, in the order the fields first appear. Empty if no entries are set.
+     */
+    public Map<String, List<ReplacementPath>> connectFieldPaths() {
+        Map<String, List<ReplacementPath>> paths = new LinkedHashMap<>();
+        for (String entry : getList(CONNECT_FIELD_PATHS)) {
+            int separator = entry.indexOf(':');
+            String field = separator < 0 ? "" : entry.substring(0, separator).trim();
+            if (field.isEmpty()) {
+                throw new ConfigException(CONNECT_FIELD_PATHS, entry, "Entry must be <field>:<pointer>[=<value>]");
+            }
+            paths.computeIfAbsent(field, f -> new ArrayList<>()).add(ReplacementPath.parse(entry.substring(separator + 1)));
+        }
+        return paths;
+    }
+
     public static ConfigDef config() {
         return new ConfigDef()
                 .define(
                         ConfigKeyBuilder.of(REPLACEMENT_FIELD_PATH, ConfigDef.Type.STRING)
                                 .documentation("JsonPointer to replacement field")
-                                .defaultValue(Schema.Type.STRING.toString())
+                                .defaultValue("STRING")
                                 .validator(new ConfigDef.NonNullValidator())
                                 .importance(ConfigDef.Importance.HIGH)
                                 .build()
                 )
+                .define(
+                        ConfigKeyBuilder.of(REPLACEMENT_FIELD_PATHS, ConfigDef.Type.LIST)
+                                .documentation("List of JsonPointers to replacement fields, masked in a single pass. " +
+                                        "Each entry may override the replacement value as <pointer>=<value>")
+                                .defaultValue(Collections.emptyList())
+                                .importance(ConfigDef.Importance.HIGH)
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(MASK_KEYS, ConfigDef.Type.LIST)
+                                .documentation("List of property names that are masked wherever they appear in the " +
+                                        "document, at any depth. Same as a **/<name> entry in REPLACEMENT_FIELD_PATHS for each name.")
+                                .defaultValue(Collections.emptyList())
+                                .importance(ConfigDef.Importance.HIGH)
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(DETECTORS, ConfigDef.Type.LIST)
+                                .documentation("List of detectors that find PII in every string value of the document: " +
+                                        "SSN, PAN (Luhn valid card numbers), EMAIL and PHONE. Detected values are replaced " +
+                                        "within the string. Payloads are masked with the STREAMING engine when this is set.")
+                                .defaultValue(Collections.emptyList())
+                                .validator(ConfigDef.ValidList.in(DETECTOR_SSN, DETECTOR_PAN, DETECTOR_EMAIL, DETECTOR_PHONE))
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(DETECTOR_REPLACEMENT, ConfigDef.Type.STRING)
+                                .documentation("The string that replaces a detected value, when REPLACEMENT_MODE is CONSTANT.")
+                                .defaultValue("[REDACTED]")
+                                .importance(ConfigDef.Importance.LOW)
+                                .build()
+                )
                 .define(
                         ConfigKeyBuilder.of(CONNECT_FIELD_NAME, ConfigDef.Type.STRING)
                                 .documentation("Connect field that has the json string")
@@ -61,6 +213,15 @@ public class MaskJsonFieldConfig extends AbstractConfig {
                                 .defaultValue("")
                                 .build()
                 )
+                .define(
+                        ConfigKeyBuilder.of(CONNECT_FIELD_PATHS, ConfigDef.Type.LIST)
+                                .documentation("List of <field>:<pointer>[=<value>] entries, to mask several Connect fields " +
+                                        "that have a json string, each with its own pointers, in one pass over the record. " +
+                                        "If set, CONNECT_FIELD_NAME and the REPLACEMENT_FIELD_PATH configs are not used.")
+                                .defaultValue(Collections.emptyList())
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .build()
+                )
                 .define(
                         ConfigKeyBuilder.of(REPLACEMENT_VALUE_STRING, ConfigDef.Type.STRING)
                                 .documentation("The string value that should be used to replace.")
@@ -87,6 +248,241 @@ public class MaskJsonFieldConfig extends AbstractConfig {
                                 .documentation("The long value that should be used to replace.")
                                 .importance(ConfigDef.Importance.LOW)
                                 .defaultValue(0.0)
+                                .validator((name, value) -> {
+                                    // NaN and Infinity are not valid JSON.
+                                    if (!Double.isFinite((Double) value)) {
+                                        throw new ConfigException(name, value, "Value must be a finite number");
+                                    }
+                                })
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(REPLACEMENT_MODE, ConfigDef.Type.STRING)
+                                .documentation("How string values are replaced. CONSTANT uses REPLACEMENT_VALUE_STRING. " +
+                                        "HMAC uses a token derived from the value with HMAC_KEY, so equal values get equal tokens. " +
+                                        "PARTIAL keeps the first PARTIAL_KEEP_FIRST and last PARTIAL_KEEP_LAST chars, and masks the rest.")
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .defaultValue(REPLACEMENT_MODE_CONSTANT)
+                                .validator(ConfigDef.ValidString.in(REPLACEMENT_MODE_CONSTANT, REPLACEMENT_MODE_HMAC, REPLACEMENT_MODE_PARTIAL))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(HMAC_KEY, ConfigDef.Type.PASSWORD)
+                                .documentation("The secret key of the HMAC tokens. Required if REPLACEMENT_MODE is HMAC.")
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .defaultValue(null)
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(HMAC_ALGORITHM, ConfigDef.Type.STRING)
+                                .documentation("The javax.crypto.Mac algorithm of the HMAC tokens.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue("HmacSHA256")
+                                .validator(new ConfigDef.NonEmptyString())
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(TOKEN_CACHE_SIZE, ConfigDef.Type.INT)
+                                .documentation("How many recent values and their HMAC tokens are kept, so that values that " +
+                                        "come back are not hashed again. 0 turns the cache off.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(10000)
+                                .validator(ConfigDef.Range.atLeast(0))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(PARTIAL_KEEP_FIRST, ConfigDef.Type.INT)
+                                .documentation("Number of leading chars that PARTIAL replacement keeps.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(0)
+                                .validator(ConfigDef.Range.atLeast(0))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(PARTIAL_KEEP_LAST, ConfigDef.Type.INT)
+                                .documentation("Number of trailing chars that PARTIAL replacement keeps.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(4)
+                                .validator(ConfigDef.Range.atLeast(0))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(PARTIAL_MASK_CHAR, ConfigDef.Type.STRING)
+                                .documentation("The char that PARTIAL replacement writes in place of each masked char.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue("*")
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(PARTIAL_PRESERVE_SEPARATORS, ConfigDef.Type.BOOLEAN)
+                                .documentation("If true, PARTIAL replacement keeps ASCII chars that are not letters or digits, " +
+                                        "for eg '-' or ' ', and does not count them.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(true)
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(MASKING_ENGINE, ConfigDef.Type.STRING)
+                                .documentation("How the payload is masked. TREE parses the payload into a JsonNode tree. " +
+                                        "STREAMING copies parser tokens to a generator without building a tree. " +
+                                        "SPLICE only rewrites the matched values and copies the rest of the payload as is.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(MASKING_ENGINE_TREE)
+                                .validator(ConfigDef.ValidString.in(MASKING_ENGINE_TREE, MASKING_ENGINE_STREAMING, MASKING_ENGINE_SPLICE))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(MASKING_TARGET, ConfigDef.Type.STRING)
+                                .documentation("What the replacement paths address. JSON masks the JSON payload held by the " +
+                                        "record or by CONNECT_FIELD_NAME. CONNECT masks the fields of a Struct or schemaless Map " +
+                                        "record directly, without serializing it to JSON.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(MASKING_TARGET_JSON)
+                                .validator(ConfigDef.ValidString.in(MASKING_TARGET_JSON, MASKING_TARGET_CONNECT))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(PREFILTER_ENABLED, ConfigDef.Type.BOOLEAN)
+                                .documentation("If true, the raw payload is searched for the quoted property names of the " +
+                                        "pointers before it is parsed. Payloads that contain none of them are left as is.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(false)
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(TOPIC_INCLUDE_PATTERN, ConfigDef.Type.STRING)
+                                .documentation("Regex of the topics to mask. If neither this nor TOPIC_INCLUDE_PREFIXES is set, " +
+                                        "all topics are masked.")
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .defaultValue("")
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(TOPIC_INCLUDE_PREFIXES, ConfigDef.Type.LIST)
+                                .documentation("Prefixes of the topics to mask, in addition to TOPIC_INCLUDE_PATTERN.")
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .defaultValue(Collections.emptyList())
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(TOPIC_EXCLUDE_PATTERN, ConfigDef.Type.STRING)
+                                .documentation("Regex of the topics not to mask, even if they are included.")
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .defaultValue("")
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(HEADER_INCLUDE, ConfigDef.Type.LIST)
+                                .documentation("Only records with one of these headers are masked. Each entry is <name> " +
+                                        "or <name>=<value>.")
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .defaultValue(Collections.emptyList())
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(HEADER_EXCLUDE, ConfigDef.Type.LIST)
+                                .documentation("Records with one of these headers are not masked. Each entry is <name> " +
+                                        "or <name>=<value>.")
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .defaultValue(Collections.emptyList())
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(RULES_FILE, ConfigDef.Type.STRING)
+                                .documentation("Path of a local properties file with masking settings, for eg " +
+                                        "REPLACEMENT_FIELD_PATHS or MASK_KEYS, that override the ones of the connector. " +
+                                        "The file is checked every RULES_FILE_POLL_MS, and a change takes effect without " +
+                                        "restarting the task. Records that are being masked finish with the previous " +
+                                        "rules. If the changed file is invalid, the previous rules are kept. Empty disables it.")
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .defaultValue("")
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(RULES_FILE_POLL_MS, ConfigDef.Type.LONG)
+                                .documentation("How often the RULES_FILE is checked for changes.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(5000L)
+                                .validator(ConfigDef.Range.atLeast(10))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(BATCH_PARALLEL_THRESHOLD, ConfigDef.Type.INT)
+                                .documentation("Batches passed to applyBatch() with at least this many records are masked " +
+                                        "in parallel on the common ForkJoin pool. 0 masks every batch on the calling thread.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(0)
+                                .validator(ConfigDef.Range.atLeast(0))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(FAILURE_POLICY, ConfigDef.Type.STRING)
+                                .documentation("What is done with records that can not be masked, for eg because the payload " +
+                                        "is not valid JSON. PASS_THROUGH returns them as is. FAIL fails the task, unless the " +
+                                        "connector tolerates errors. TAG_HEADER returns them as is, with a FAILURE_HEADER header.")
+                                .importance(ConfigDef.Importance.MEDIUM)
+                                .defaultValue(FAILURE_POLICY_PASS_THROUGH)
+                                .validator(ConfigDef.ValidString.in(FAILURE_POLICY_PASS_THROUGH, FAILURE_POLICY_FAIL, FAILURE_POLICY_TAG_HEADER))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(FAILURE_HEADER, ConfigDef.Type.STRING)
+                                .documentation("Name of the header that FAILURE_POLICY=TAG_HEADER adds, with the reason as its value.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue("mask.json.field.error")
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(MASKED_HEADER, ConfigDef.Type.STRING)
+                                .documentation("Name of a header that the transform sets to a fingerprint of its masking " +
+                                        "settings on every record it processed. Records that already have a matching " +
+                                        "header, for eg when a topic is replayed, are returned as is without parsing. " +
+                                        "Empty disables it.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue("")
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(AUDIT_SAMPLE_RATE, ConfigDef.Type.DOUBLE)
+                                .documentation("Share of masked payloads, from 0 to 1, that a background thread scans for " +
+                                        "values that still look like PII. 0 disables the auditor.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(0.0)
+                                .validator(ConfigDef.Range.between(0, 1))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(AUDIT_QUEUE_SIZE, ConfigDef.Type.INT)
+                                .documentation("Number of sampled payloads that can wait for the auditor, rounded up to a " +
+                                        "power of two. Samples are dropped when it is full.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(1024)
+                                .validator(ConfigDef.Range.between(1, 1 << 20))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(AUDIT_DETECTORS, ConfigDef.Type.LIST)
+                                .documentation("The detectors the auditor scans sampled payloads with. See DETECTORS.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(Arrays.asList(DETECTOR_SSN, DETECTOR_PAN, DETECTOR_EMAIL))
+                                .validator(ConfigDef.ValidList.in(DETECTOR_SSN, DETECTOR_PAN, DETECTOR_EMAIL, DETECTOR_PHONE))
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(METRICS_ENABLED, ConfigDef.Type.BOOLEAN)
+                                .documentation("If true, per pointer hit counts and stage latencies are recorded, and the " +
+                                        "metrics of each transform instance are registered as a JMX MBean.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(true)
+                                .build()
+                )
+                .define(
+                        ConfigKeyBuilder.of(SLOW_RECORD_THRESHOLD_MS, ConfigDef.Type.LONG)
+                                .documentation("Records that take at least this long to mask are counted, and logged with " +
+                                        "their topic, partition and offset, at most once per second. 0 turns this off.")
+                                .importance(ConfigDef.Importance.LOW)
+                                .defaultValue(0L)
+                                .validator(ConfigDef.Range.atLeast(0))
                                 .build()
                 )
                 ;
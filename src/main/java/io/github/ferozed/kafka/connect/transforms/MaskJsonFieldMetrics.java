@@ -0,0 +1,386 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of one {@link MaskJsonField} instance. All updates are lock free.
+ */
+public class MaskJsonFieldMetrics implements MaskJsonFieldMetricsMBean, MaskingListener {
+    private static final long SLOW_RECORD_LOG_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder alreadyMasked = new LongAdder();
+    private final LongAdder masked = new LongAdder();
+    private final LongAdder notMatched = new LongAdder();
+    private final LongAdder parseFailed = new LongAdder();
+    private final LongAdder prefilterHits = new LongAdder();
+    private final LongAdder prefilterSkips = new LongAdder();
+    private final LongAdder slowRecords = new LongAdder();
+    private final AtomicLong lastSlowRecordLog = new AtomicLong(System.nanoTime() - SLOW_RECORD_LOG_INTERVAL);
+
+    /**
+     * Replaced when a {@code RULES_FILE} is reloaded.
+     */
+    private volatile RuleCounters rules;
+    private final LongAdder rulesReloads = new LongAdder();
+    private final LongAdder rulesReloadFailures = new LongAdder();
+    private final LongAdder[] detectorHits = new LongAdder[PiiDetectors.NAMES.length];
+    private final LongAdder auditSampled = new LongAdder();
+    private final LongAdder auditDropped = new LongAdder();
+    private final LongAdder auditScanned = new LongAdder();
+    private final LongAdder auditLeaks = new LongAdder();
+    private final LongAdder[] auditDetectorHits = new LongAdder[PiiDetectors.NAMES.length];
+
+    private final LatencyHistogram parse = new LatencyHistogram();
+    private final LatencyHistogram mutate = new LatencyHistogram();
+    private final LatencyHistogram serialize = new LatencyHistogram();
+
+    MaskJsonFieldMetrics(MaskingRule[] rules, Tokenizer tokenizer) {
+        this.rules = new RuleCounters(rules, tokenizer);
+        for (int i = 0; i < detectorHits.length; i++) {
+            detectorHits[i] = new LongAdder();
+            auditDetectorHits[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Switches to the rules of a reloaded plan. Their hits start from 0.
+     */
+    void rules(MaskingRule[] rules, Tokenizer tokenizer) {
+        this.rules = new RuleCounters(rules, tokenizer);
+    }
+
+    void rulesReloaded() {
+        rulesReloads.increment();
+    }
+
+    void rulesReloadFailed() {
+        rulesReloadFailures.increment();
+    }
+
+    void filtered() {
+        filtered.increment();
+    }
+
+    void alreadyMasked() {
+        alreadyMasked.increment();
+    }
+
+    void masked() {
+        masked.increment();
+    }
+
+    void notMatched() {
+        notMatched.increment();
+    }
+
+    void parseFailed() {
+        parseFailed.increment();
+    }
+
+    void prefilterHit() {
+        prefilterHits.increment();
+    }
+
+    void prefilterSkip() {
+        prefilterSkips.increment();
+    }
+
+    /**
+     * Counts a slow record.
+     *
+     * @return true if the record should be logged. At most one slow record is logged per second.
+     */
+    boolean slowRecord() {
+        slowRecords.increment();
+        long now = System.nanoTime();
+        long last = lastSlowRecordLog.get();
+        return now - last >= SLOW_RECORD_LOG_INTERVAL && lastSlowRecordLog.compareAndSet(last, now);
+    }
+
+    void auditSampled() {
+        auditSampled.increment();
+    }
+
+    void auditDropped() {
+        auditDropped.increment();
+    }
+
+    void auditScanned() {
+        auditScanned.increment();
+    }
+
+    void auditLeak() {
+        auditLeaks.increment();
+    }
+
+    void auditDetected(int detector) {
+        auditDetectorHits[detector].increment();
+    }
+
+    @Override
+    public void matched(int rule) {
+        LongAdder[] hits = rules.hits;
+        // a record that was masked with the previous plan may report a rule that the new plan does not have.
+        if (rule < hits.length) {
+            hits[rule].increment();
+        }
+    }
+
+    @Override
+    public void detected(int detector) {
+        detectorHits[detector].increment();
+    }
+
+    @Override
+    public void parsed(long nanos) {
+        parse.record(nanos);
+    }
+
+    @Override
+    public void mutated(long nanos) {
+        mutate.record(nanos);
+    }
+
+    @Override
+    public void serialized(long nanos) {
+        serialize.record(nanos);
+    }
+
+    @Override
+    public long getFiltered() {
+        return filtered.sum();
+    }
+
+    @Override
+    public long getAlreadyMasked() {
+        return alreadyMasked.sum();
+    }
+
+    @Override
+    public long getMasked() {
+        return masked.sum();
+    }
+
+    @Override
+    public long getNotMatched() {
+        return notMatched.sum();
+    }
+
+    @Override
+    public long getParseFailed() {
+        return parseFailed.sum();
+    }
+
+    @Override
+    public long getPrefilterHits() {
+        return prefilterHits.sum();
+    }
+
+    @Override
+    public long getPrefilterSkips() {
+        return prefilterSkips.sum();
+    }
+
+    @Override
+    public long getSlowRecords() {
+        return slowRecords.sum();
+    }
+
+    @Override
+    public long getTokenCacheHits() {
+        Tokenizer tokenizer = rules.tokenizer;
+        return tokenizer != null ? tokenizer.hits() : 0;
+    }
+
+    @Override
+    public long getTokenCacheMisses() {
+        Tokenizer tokenizer = rules.tokenizer;
+        return tokenizer != null ? tokenizer.misses() : 0;
+    }
+
+    @Override
+    public double getTokenCacheHitRate() {
+        long hits = getTokenCacheHits();
+        long total = hits + getTokenCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String[] getRulePaths() {
+        return rules.paths.clone();
+    }
+
+    @Override
+    public long[] getRuleHits() {
+        return sums(rules.hits);
+    }
+
+    @Override
+    public long getRulesReloads() {
+        return rulesReloads.sum();
+    }
+
+    @Override
+    public long getRulesReloadFailures() {
+        return rulesReloadFailures.sum();
+    }
+
+    @Override
+    public String[] getDetectorNames() {
+        return PiiDetectors.NAMES.clone();
+    }
+
+    @Override
+    public long[] getDetectorHits() {
+        return sums(detectorHits);
+    }
+
+    @Override
+    public long getAuditSampled() {
+        return auditSampled.sum();
+    }
+
+    @Override
+    public long getAuditDropped() {
+        return auditDropped.sum();
+    }
+
+    @Override
+    public long getAuditScanned() {
+        return auditScanned.sum();
+    }
+
+    @Override
+    public long getAuditLeaks() {
+        return auditLeaks.sum();
+    }
+
+    @Override
+    public long[] getAuditDetectorHits() {
+        return sums(auditDetectorHits);
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+
+    @Override
+    public long getParseCount() {
+        return parse.count();
+    }
+
+    @Override
+    public long getParseMeanNanos() {
+        return parse.mean();
+    }
+
+    @Override
+    public long getParseP50Nanos() {
+        return parse.percentile(50);
+    }
+
+    @Override
+    public long getParseP99Nanos() {
+        return parse.percentile(99);
+    }
+
+    @Override
+    public long getParseMaxNanos() {
+        return parse.max();
+    }
+
+    @Override
+    public long getMutateCount() {
+        return mutate.count();
+    }
+
+    @Override
+    public long getMutateMeanNanos() {
+        return mutate.mean();
+    }
+
+    @Override
+    public long getMutateP50Nanos() {
+        return mutate.percentile(50);
+    }
+
+    @Override
+    public long getMutateP99Nanos() {
+        return mutate.percentile(99);
+    }
+
+    @Override
+    public long getMutateMaxNanos() {
+        return mutate.max();
+    }
+
+    @Override
+    public long getSerializeCount() {
+        return serialize.count();
+    }
+
+    @Override
+    public long getSerializeMeanNanos() {
+        return serialize.mean();
+    }
+
+    @Override
+    public long getSerializeP50Nanos() {
+        return serialize.percentile(50);
+    }
+
+    @Override
+    public long getSerializeP99Nanos() {
+        return serialize.percentile(99);
+    }
+
+    @Override
+    public long getSerializeMaxNanos() {
+        return serialize.max();
+    }
+
+    /**
+     * The rules of one plan, with their hit counts.
+     */
+    private static final class RuleCounters {
+        final String[] paths;
+        final LongAdder[] hits;
+
+        /**
+         * null unless {@code REPLACEMENT_MODE} is {@code HMAC}.
+         */
+        final Tokenizer tokenizer;
+
+        RuleCounters(MaskingRule[] rules, Tokenizer tokenizer) {
+            this.paths = new String[rules.length];
+            this.hits = new LongAdder[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                paths[i] = rules[i].path;
+                hits[i] = new LongAdder();
+            }
+            this.tokenizer = tokenizer;
+        }
+    }
+}
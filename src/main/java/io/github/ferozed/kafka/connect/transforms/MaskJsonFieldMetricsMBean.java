@@ -0,0 +1,164 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+/**
+ * Metrics of one {@link MaskJsonField} instance. Registered as a JMX MBean when {@code METRICS_ENABLED} is true,
+ * and available in code through {@link MaskJsonField#metrics()}.
+ *
+ * Latencies are in nanos, and percentiles are rounded up to the next power of two.
+ */
+public interface MaskJsonFieldMetricsMBean {
+    /**
+     * @return records that the topic and header filters passed over.
+     */
+    long getFiltered();
+
+    /**
+     * @return records skipped because their {@code MASKED_HEADER} matched the masking settings.
+     */
+    long getAlreadyMasked();
+
+    /**
+     * @return payloads where at least one pointer matched.
+     */
+    long getMasked();
+
+    /**
+     * @return payloads that were parsed, but where no pointer matched.
+     */
+    long getNotMatched();
+
+    /**
+     * @return payloads that could not be parsed as JSON.
+     */
+    long getParseFailed();
+
+    /**
+     * @return payloads that the prefilter passed on to the masking engine.
+     */
+    long getPrefilterHits();
+
+    /**
+     * @return payloads that the prefilter left as is, without parsing them.
+     */
+    long getPrefilterSkips();
+
+    /**
+     * @return records that took longer than {@code SLOW_RECORD_THRESHOLD_MS} to mask.
+     */
+    long getSlowRecords();
+
+    /**
+     * @return string values whose HMAC token was found in the token cache.
+     */
+    long getTokenCacheHits();
+
+    /**
+     * @return string values whose HMAC token had to be computed.
+     */
+    long getTokenCacheMisses();
+
+    /**
+     * @return hits / (hits + misses) of the token cache, or 0 before the first token.
+     */
+    double getTokenCacheHitRate();
+
+    /**
+     * @return the replacement paths, in the same order as {@link #getRuleHits()}.
+     */
+    String[] getRulePaths();
+
+    /**
+     * @return number of values replaced by each replacement path.
+     */
+    long[] getRuleHits();
+
+    /**
+     * @return number of times a changed {@code RULES_FILE} was compiled and took effect.
+     */
+    long getRulesReloads();
+
+    /**
+     * @return number of times a changed {@code RULES_FILE} could not be read or compiled, and the previous rules were kept.
+     */
+    long getRulesReloadFailures();
+
+    /**
+     * @return the {@code DETECTORS}, in the same order as {@link #getDetectorHits()}.
+     */
+    String[] getDetectorNames();
+
+    /**
+     * @return number of values replaced by each detector.
+     */
+    long[] getDetectorHits();
+
+    /**
+     * @return masked payloads queued for the {@code AUDIT_SAMPLE_RATE} auditor.
+     */
+    long getAuditSampled();
+
+    /**
+     * @return sampled payloads dropped because the audit queue was full.
+     */
+    long getAuditDropped();
+
+    /**
+     * @return sampled payloads the auditor has scanned.
+     */
+    long getAuditScanned();
+
+    /**
+     * @return scanned payloads where the auditor found at least one value that looks like PII.
+     */
+    long getAuditLeaks();
+
+    /**
+     * @return number of values the auditor found with each detector, in the same order as {@link #getDetectorNames()}.
+     */
+    long[] getAuditDetectorHits();
+
+    long getParseCount();
+
+    long getParseMeanNanos();
+
+    long getParseP50Nanos();
+
+    long getParseP99Nanos();
+
+    long getParseMaxNanos();
+
+    long getMutateCount();
+
+    long getMutateMeanNanos();
+
+    long getMutateP50Nanos();
+
+    long getMutateP99Nanos();
+
+    long getMutateMaxNanos();
+
+    long getSerializeCount();
+
+    long getSerializeMeanNanos();
+
+    long getSerializeP50Nanos();
+
+    long getSerializeP99Nanos();
+
+    long getSerializeMaxNanos();
+}
@@ -0,0 +1,314 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Masks a file of newline delimited JSON documents with the rules of a {@link MaskJsonField} config, for eg for
+ * backfills.
+ *
+ * <pre>
+ * java -cp "mask-json-field-transform-shadow.jar:$KAFKA_HOME/libs/*" \
+ *     io.github.ferozed.kafka.connect.transforms.MaskNdjson --config masking.properties input.ndjson output.ndjson
+ * </pre>
+ *
+ * The input is memory-mapped and split into chunks that end on a newline. The chunks are masked in parallel, one
+ * {@link JsonMasker} shared by all threads, and written in input order. Line endings and empty lines are kept.
+ * Each line is parsed in place, and lines without a match are written straight from the mapped file, so only
+ * masked lines are copied to the heap.
+ * At most two chunks per thread are in memory at a time.
+ */
+public final class MaskNdjson {
+    static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static final String USAGE = "Usage: MaskNdjson --config <file> [--prefix <prefix>] [--threads <n>] " +
+            "[--chunk-mb <n>] <input> <output|->\n" +
+            "  --config    properties file with the MaskJsonField settings\n" +
+            "  --prefix    only use the settings that start with this prefix, for eg transforms.mask.\n" +
+            "  --threads   number of masking threads, the number of cores by default\n" +
+            "  --chunk-mb  size of the chunks the input is split into, " + (DEFAULT_CHUNK_SIZE >> 20) + " by default";
+
+    private MaskNdjson() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return the exit code: 0 on success, 1 if the file could not be masked, 2 if the arguments or the settings are
+     * invalid.
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        String config = null;
+        String prefix = "";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = DEFAULT_CHUNK_SIZE;
+        String input = null;
+        String output = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--config":
+                        config = args[++i];
+                        break;
+                    case "--prefix":
+                        prefix = args[++i];
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--chunk-mb":
+                        chunkSize = Math.multiplyExact(Integer.parseInt(args[++i]), 1024 * 1024);
+                        break;
+                    default:
+                        if (input == null) {
+                            input = args[i];
+                        } else if (output == null) {
+                            output = args[i];
+                        } else {
+                            throw new IllegalArgumentException(args[i]);
+                        }
+                }
+            }
+        } catch (RuntimeException e) {
+            err.println(USAGE);
+            return 2;
+        }
+        if (config == null || input == null || output == null || threads < 1 || chunkSize < 1) {
+            err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            JsonMasker masker = JsonMasker.builder().configs(settings(Paths.get(config), prefix)).build();
+
+            long start = System.nanoTime();
+            long bytes;
+            if ("-".equals(output)) {
+                bytes = mask(Paths.get(input), out, masker, threads, chunkSize);
+                out.flush();
+            } else {
+                try (OutputStream stream = Files.newOutputStream(Paths.get(output))) {
+                    bytes = mask(Paths.get(input), stream, masker, threads, chunkSize);
+                }
+            }
+            double seconds = Math.max(System.nanoTime() - start, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+
+            MaskJsonFieldMetrics metrics = masker.metrics();
+            err.printf(
+                    "Masked %d bytes in %.2f s, %.1f MB/s. documents: masked=%d notMatched=%d parseFailed=%d skipped=%d%n",
+                    bytes,
+                    seconds,
+                    bytes / seconds / (1024 * 1024),
+                    metrics.getMasked(),
+                    metrics.getNotMatched(),
+                    metrics.getParseFailed(),
+                    metrics.getPrefilterSkips()
+            );
+            return 0;
+        } catch (ConfigException e) {
+            err.println("Invalid settings in " + config + ": " + e.getMessage());
+            return 2;
+        } catch (IOException | RuntimeException e) {
+            err.println("Could not mask " + input + ": " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * @return the settings of the properties file that start with {@code prefix}, without it.
+     */
+    static Map<String, Object> settings(Path file, String prefix) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream stream = Files.newInputStream(file)) {
+            properties.load(stream);
+        }
+        Map<String, Object> settings = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                settings.put(name.substring(prefix.length()), properties.getProperty(name));
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Masks every line of {@code input} and writes them to {@code output}, in the same order.
+     *
+     * @return the size of the input, in bytes.
+     * @throws JsonMaskingException if a line is not valid JSON, and {@code FAILURE_POLICY} is not {@code PASS_THROUGH}.
+     */
+    static long mask(Path input, OutputStream output, JsonMasker masker, int threads, int chunkSize) throws IOException {
+        if (!Files.isRegularFile(input)) {
+            throw new FileNotFoundException(input.toString());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mask-ndjson");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // not closed, so that the output stream stays open.
+        WritableByteChannel out = Channels.newChannel(output);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ArrayDeque<Future<List<ByteBuffer>>> pending = new ArrayDeque<>();
+            long start = 0;
+            while (start < size) {
+                long end = chunkEnd(channel, start, chunkSize, size);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                long offset = start;
+                pending.add(executor.submit(() -> maskChunk(chunk, offset, masker)));
+                if (pending.size() >= 2 * threads) {
+                    write(pending.poll(), out);
+                }
+                start = end;
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), out);
+            }
+            return size;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the position after the first newline at or after {@code start + chunkSize}, or the end of the file.
+     */
+    static long chunkEnd(FileChannel channel, long start, int chunkSize, long size) throws IOException {
+        long position = start + chunkSize - 1;
+        if (position >= size - 1) {
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    long end = position + i + 1;
+                    if (end - start > Integer.MAX_VALUE) {
+                        throw new IOException("A line at byte offset " + start + " is longer than 2 GB");
+                    }
+                    return end;
+                }
+            }
+            position += read;
+        }
+        if (size - start > Integer.MAX_VALUE) {
+            throw new IOException("A line at byte offset " + start + " is longer than 2 GB");
+        }
+        return size;
+    }
+
+    /**
+     * Masks the lines of one chunk, which starts at position 0. A trailing {@code \r} is left out of the document.
+     *
+     * @return the masked chunk, as slices of {@code chunk} for the runs of lines that were not changed and buffers
+     * over the masked documents in between.
+     */
+    static List<ByteBuffer> maskChunk(ByteBuffer chunk, long offset, JsonMasker masker) {
+        int length = chunk.remaining();
+        List<ByteBuffer> out = new ArrayList<>();
+        int copied = 0;
+        int start = 0;
+        while (start < length) {
+            int newline = start;
+            while (newline < length && chunk.get(newline) != '\n') {
+                newline++;
+            }
+            int end = newline > start && chunk.get(newline - 1) == '\r' ? newline - 1 : newline;
+
+            if (end > start) {
+                ByteBuffer document = slice(chunk, start, end);
+                ByteBuffer masked;
+                try {
+                    masked = masker.mask(document);
+                } catch (JsonMaskingException e) {
+                    throw new JsonMaskingException("Line at byte offset " + (offset + start) + ": " + e.getMessage(), e);
+                }
+                if (masked != document) {
+                    if (start > copied) {
+                        out.add(slice(chunk, copied, start));
+                    }
+                    out.add(masked);
+                    copied = end;
+                }
+            }
+            start = newline + 1;
+        }
+        if (length > copied) {
+            out.add(slice(chunk, copied, length));
+        }
+        return out;
+    }
+
+    private static ByteBuffer slice(ByteBuffer chunk, int start, int end) {
+        ByteBuffer slice = chunk.duplicate();
+        slice.limit(end);
+        slice.position(start);
+        return slice.slice();
+    }
+
+    private static void write(Future<List<ByteBuffer>> chunk, WritableByteChannel output) throws IOException {
+        try {
+            for (ByteBuffer buffer : chunk.get()) {
+                while (buffer.hasRemaining()) {
+                    output.write(buffer);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Scratch space of the masking engines, one per thread, so that a thread masking many records in a row
+ * does not allocate it again for each record. Once warmed up, a {@code mask()} call only allocates its result
+ * and a few small parser objects. Jackson recycles its own parser and generator buffers per thread.
+ *
+ * An engine takes the buffers at the start of {@code mask()} and is done with them when it returns.
+ */
+final class MaskingBuffers {
+    private static final ThreadLocal<MaskingBuffers> BUFFERS = ThreadLocal.withInitial(MaskingBuffers::new);
+
+    private static final int INITIAL_SIZE = 8 * 1024;
+
+    /**
+     * Output buffers that grew past this many chars / bytes are dropped instead of reused, so that one
+     * very large record does not pin its memory to the thread.
+     */
+    static final int MAX_RETAINED_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Automaton state of each enclosing object / array.
+     */
+    PathAutomaton.State[] states = new PathAutomaton.State[16];
+
+    final Spans spans = new Spans();
+
+    private char[] text = new char[256];
+
+    private final CharOutput chars = new CharOutput();
+    private final ByteOutput bytes = new ByteOutput();
+
+    private MaskingBuffers() {
+    }
+
+    static MaskingBuffers get() {
+        return BUFFERS.get();
+    }
+
+    /**
+     * @return the thread's char output, emptied.
+     */
+    CharOutput chars() {
+        chars.reset();
+        return chars;
+    }
+
+    /**
+     * @return the thread's byte output, emptied.
+     */
+    ByteOutput bytes() {
+        bytes.reset();
+        return bytes;
+    }
+
+    /**
+     * @return a scratch char array of at least {@code length} chars. The contents are not cleared.
+     */
+    char[] text(int length) {
+        if (length > text.length) {
+            char[] grown = new char[Math.max(length, text.length * 2)];
+            if (grown.length > MAX_RETAINED_SIZE) {
+                return grown;
+            }
+            text = grown;
+        }
+        return text;
+    }
+
+    /**
+     * @return the state stack, with room for at least {@code depth + 1} states.
+     */
+    PathAutomaton.State[] states(int depth) {
+        if (depth >= states.length) {
+            states = Arrays.copyOf(states, Math.max(depth + 1, states.length * 2));
+        }
+        return states;
+    }
+
+    /**
+     * Spans of the matched values, in document order.
+     */
+    static final class Spans {
+        int[] start = new int[8];
+        int[] end = new int[8];
+        int[] literal = new int[8];
+
+        /**
+         * The replacement of each span, if it is not one of the engine's literals, or null.
+         */
+        String[] text = new String[8];
+        int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(int start, int end, int literal, String text) {
+            if (size == this.start.length) {
+                this.start = Arrays.copyOf(this.start, size * 2);
+                this.end = Arrays.copyOf(this.end, size * 2);
+                this.literal = Arrays.copyOf(this.literal, size * 2);
+                this.text = Arrays.copyOf(this.text, size * 2);
+            }
+            this.start[size] = start;
+            this.end[size] = end;
+            this.literal[size] = literal;
+            this.text[size] = text;
+            size++;
+        }
+    }
+
+    /**
+     * A {@link Writer} over a growable char array that is kept between records.
+     */
+    static final class CharOutput extends Writer {
+        private char[] buffer = new char[INITIAL_SIZE];
+        private int size;
+
+        void reset() {
+            if (buffer.length > MAX_RETAINED_SIZE) {
+                buffer = new char[INITIAL_SIZE];
+            }
+            size = 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+            }
+        }
+
+        @Override
+        public void write(int c) {
+            ensureCapacity(size + 1);
+            buffer[size++] = (char) c;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(chars, offset, buffer, size, length);
+            size += length;
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+            ensureCapacity(size + length);
+            string.getChars(offset, offset + length, buffer, size);
+            size += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, 0, size);
+        }
+    }
+
+    /**
+     * An {@link OutputStream} over a growable byte array that is kept between records.
+     */
+    static final class ByteOutput extends OutputStream {
+        private byte[] buffer = new byte[INITIAL_SIZE];
+        private int size;
+
+        void reset() {
+            if (buffer.length > MAX_RETAINED_SIZE) {
+                buffer = new byte[INITIAL_SIZE];
+            }
+            size = 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(size + 1);
+            buffer[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    /**
+     * An {@link InputStream} over the remaining bytes of a buffer, for eg a direct or memory-mapped one, so that
+     * it can be parsed without copying it to an array first. The position of the buffer is not changed.
+     */
+    static final class ByteInput extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteInput(ByteBuffer buffer) {
+            this.buffer = buffer.duplicate();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Replaces the values at the configured pointers of a JSON payload.
+ *
+ * A payload where none of the pointers matched is an expected outcome for many records. It is reported by
+ * returning null rather than with an exception, so that it costs nothing.
+ *
+ * The engine is picked with {@code MASKING_ENGINE}. The TREE and STREAMING engines produce the same output
+ * for the same input. The SPLICE engine only differs in that it keeps the formatting of the input.
+ */
+abstract class MaskingEngine {
+    /**
+     * Parse errors do not quote the payload, so that they can be logged and put in headers.
+     * Property names are interned, which lets {@link NameTable} match them by reference.
+     */
+    static final ObjectMapper mapper = new ObjectMapper(
+            JsonFactory.builder()
+                    .disable(StreamReadFeature.INCLUDE_SOURCE_IN_LOCATION)
+                    .enable(JsonFactory.Feature.INTERN_FIELD_NAMES)
+                    .build()
+    );
+
+    protected final MaskingRule[] rules;
+    protected final PathAutomaton automaton;
+
+    /**
+     * Replaces matched string values with their token instead of the rule's string, or null.
+     */
+    protected final Tokenizer tokenizer;
+
+    /**
+     * Masks matched string values in part instead of replacing them with the rule's string, or null.
+     */
+    protected final PartialMask partialMask;
+
+    protected MaskingEngine(MaskingRule[] rules, PathAutomaton automaton, Tokenizer tokenizer, PartialMask partialMask) {
+        this.rules = rules;
+        this.automaton = automaton;
+        this.tokenizer = tokenizer;
+        this.partialMask = partialMask;
+    }
+
+    static MaskingEngine create(
+            String engine,
+            MaskingRule[] rules,
+            PathAutomaton automaton,
+            Tokenizer tokenizer,
+            PartialMask partialMask,
+            PiiDetectors detectors
+    ) {
+        // only the streaming engine visits every string value.
+        if (MASKING_ENGINE_STREAMING.equals(engine) || detectors != null) {
+            return new StreamingMaskingEngine(rules, automaton, tokenizer, partialMask, detectors);
+        } else if (MASKING_ENGINE_SPLICE.equals(engine)) {
+            return new SpliceMaskingEngine(rules, automaton, tokenizer, partialMask);
+        }
+        return new TreeMaskingEngine(rules, automaton, tokenizer, partialMask);
+    }
+
+    /**
+     * Mask all configured pointers in the payload.
+     *
+     * @param payload JSON document
+     * @return the masked JSON document, or null if none of the pointers matched.
+     * @throws IOException if the payload is not valid JSON.
+     */
+    final String mask(String payload) throws IOException {
+        return mask(payload, MaskingListener.NONE);
+    }
+
+    /**
+     * Mask all configured pointers in the payload, and report what was done to the listener.
+     *
+     * @param payload JSON document
+     * @param listener receives the matched rules and the time of each stage
+     * @return the masked JSON document, or null if none of the pointers matched.
+     * @throws IOException if the payload is not valid JSON.
+     */
+    abstract String mask(String payload, MaskingListener listener) throws IOException;
+
+    /**
+     * Mask all configured pointers in a UTF-8 encoded payload, without decoding it to a {@link String}.
+     *
+     * @param payload UTF-8 encoded JSON document
+     * @return the masked JSON document, UTF-8 encoded, or null if none of the pointers matched.
+     * @throws IOException if the payload is not valid JSON.
+     */
+    final byte[] mask(byte[] payload) throws IOException {
+        return mask(payload, MaskingListener.NONE);
+    }
+
+    /**
+     * Mask all configured pointers in a UTF-8 encoded payload, and report what was done to the listener.
+     */
+    abstract byte[] mask(byte[] payload, MaskingListener listener) throws IOException;
+
+    /**
+     * Mask all configured pointers in the remaining bytes of a UTF-8 encoded buffer, parsing it in place, for eg
+     * a slice of a memory-mapped file. The position of the buffer is not changed.
+     *
+     * @return the masked JSON document, UTF-8 encoded, or null if none of the pointers matched.
+     */
+    abstract byte[] mask(ByteBuffer payload, MaskingListener listener) throws IOException;
+
+    /**
+     * @return {@link System#nanoTime()}, or 0 if the listener does not need timings.
+     */
+    static long now(MaskingListener listener) {
+        return listener == MaskingListener.NONE ? 0 : System.nanoTime();
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+/**
+ * Receives what a masking engine did with a payload. Used for metrics.
+ *
+ * Engines only time their stages if the listener is not {@link #NONE}.
+ */
+interface MaskingListener {
+    MaskingListener NONE = new MaskingListener() {
+        @Override
+        public void matched(int rule) {
+        }
+
+        @Override
+        public void detected(int detector) {
+        }
+
+        @Override
+        public void parsed(long nanos) {
+        }
+
+        @Override
+        public void mutated(long nanos) {
+        }
+
+        @Override
+        public void serialized(long nanos) {
+        }
+    };
+
+    /**
+     * A value was replaced using {@code rules[rule]}.
+     */
+    void matched(int rule);
+
+    /**
+     * A value was replaced by one of the {@link PiiDetectors}, for eg {@link PiiDetectors#SSN}.
+     */
+    void detected(int detector);
+
+    /**
+     * @return a listener that reports {@code rules[rule]} of an engine as {@code rule + offset} to this one,
+     * for engines that only have a slice of the rules.
+     */
+    default MaskingListener offset(int offset) {
+        if (this == NONE || offset == 0) {
+            return this;
+        }
+        MaskingListener listener = this;
+        return new MaskingListener() {
+            @Override
+            public void matched(int rule) {
+                listener.matched(rule + offset);
+            }
+
+            @Override
+            public void detected(int detector) {
+                listener.detected(detector);
+            }
+
+            @Override
+            public void parsed(long nanos) {
+                listener.parsed(nanos);
+            }
+
+            @Override
+            public void mutated(long nanos) {
+                listener.mutated(nanos);
+            }
+
+            @Override
+            public void serialized(long nanos) {
+                listener.serialized(nanos);
+            }
+        };
+    }
+
+    /**
+     * Time spent reading the payload. Engines that mask while reading include that time here.
+     */
+    void parsed(long nanos);
+
+    /**
+     * Time spent replacing values in a parsed tree. Only reported by engines that build a tree.
+     */
+    void mutated(long nanos);
+
+    /**
+     * Time spent producing the masked payload.
+     */
+    void serialized(long nanos);
+}
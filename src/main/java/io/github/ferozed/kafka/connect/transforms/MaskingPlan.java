@@ -0,0 +1,226 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Everything a record needs to be masked, compiled once from the config in {@code configure()}.
+ *
+ * The per-record path only reads from the plan. It does no config lookups, regex splitting or pointer parsing.
+ */
+final class MaskingPlan {
+    /**
+     * The value whose HMAC token stands for the key in the fingerprint.
+     */
+    private static final String FINGERPRINT_PROBE = "mask-json-field";
+
+    /**
+     * null if no topic or header filter is configured.
+     */
+    final RecordFilter filter;
+
+    final MaskingRule[] rules;
+
+    /**
+     * All rule paths, compiled into a single automaton.
+     */
+    final PathAutomaton automaton;
+
+    /**
+     * {@code CONNECT_FIELD_NAME} split on dots.
+     */
+    final String[] connectFieldTokens;
+
+    /**
+     * null unless {@code REPLACEMENT_MODE} is {@code HMAC}.
+     */
+    final Tokenizer tokenizer;
+
+    /**
+     * null unless {@code REPLACEMENT_MODE} is {@code PARTIAL}.
+     */
+    final PartialMask partialMask;
+
+    final MaskingEngine engine;
+
+    /**
+     * null unless {@code MASKING_TARGET} is {@code CONNECT}.
+     */
+    final ConnectMasker connectMasker;
+
+    /**
+     * null if {@code PREFILTER_ENABLED} is false, or the rules can not be prefiltered.
+     */
+    final Prefilter prefilter;
+
+    /**
+     * null unless {@code CONNECT_FIELD_PATHS} is set. The rules of all its fields are in {@link #rules}.
+     */
+    final ConnectFields connectFields;
+
+    /**
+     * A short hash of every setting that changes the masked output. Two plans with the same fingerprint mask a
+     * payload the same way.
+     */
+    final String fingerprint;
+
+    private MaskingPlan(
+            RecordFilter filter,
+            MaskingRule[] rules,
+            PathAutomaton automaton,
+            String[] connectFieldTokens,
+            Tokenizer tokenizer,
+            PartialMask partialMask,
+            MaskingEngine engine,
+            ConnectMasker connectMasker,
+            Prefilter prefilter,
+            ConnectFields connectFields,
+            String fingerprint
+    ) {
+        this.filter = filter;
+        this.rules = rules;
+        this.automaton = automaton;
+        this.connectFieldTokens = connectFieldTokens;
+        this.tokenizer = tokenizer;
+        this.partialMask = partialMask;
+        this.engine = engine;
+        this.connectMasker = connectMasker;
+        this.prefilter = prefilter;
+        this.connectFields = connectFields;
+        this.fingerprint = fingerprint;
+    }
+
+    static MaskingPlan compile(MaskJsonFieldConfig config) {
+        Map<String, List<ReplacementPath>> fieldPaths = config.connectFieldPaths();
+        List<ReplacementPath> paths = new ArrayList<>();
+        if (fieldPaths.isEmpty()) {
+            paths.addAll(config.replacementPaths());
+        } else {
+            if (MASKING_TARGET_CONNECT.equals(config.getString(MASKING_TARGET))) {
+                throw new ConfigException(CONNECT_FIELD_PATHS, config.getList(CONNECT_FIELD_PATHS), "can not be used with " + MASKING_TARGET + "=" + MASKING_TARGET_CONNECT);
+            }
+            fieldPaths.values().forEach(paths::addAll);
+        }
+        MaskingRule[] rules = new MaskingRule[paths.size()];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = new MaskingRule(paths.get(i), config);
+        }
+
+        PathAutomaton automaton = PathAutomaton.compile(rules);
+
+        String[] connectFieldTokens = config.getString(CONNECT_FIELD_NAME).split("\\.");
+
+        Tokenizer tokenizer = Tokenizer.create(config);
+        PartialMask partialMask = PartialMask.create(config);
+
+        PiiDetectors detectors = PiiDetectors.create(config, tokenizer, partialMask);
+        if (detectors != null && MASKING_TARGET_CONNECT.equals(config.getString(MASKING_TARGET))) {
+            throw new ConfigException(DETECTORS, config.getList(DETECTORS), "can not be used with " + MASKING_TARGET + "=" + MASKING_TARGET_CONNECT);
+        }
+
+        MaskingEngine engine = MaskingEngine.create(config.getString(MASKING_ENGINE), rules, automaton, tokenizer, partialMask, detectors);
+
+        ConnectMasker connectMasker = MASKING_TARGET_CONNECT.equals(config.getString(MASKING_TARGET))
+                ? new ConnectMasker(rules, automaton, tokenizer, partialMask)
+                : null;
+
+        // detected values can be anywhere, so no payload can be skipped.
+        Prefilter prefilter = config.getBoolean(PREFILTER_ENABLED) && detectors == null ? Prefilter.compile(rules) : null;
+
+        ConnectFields connectFields = fieldPaths.isEmpty()
+                ? null
+                : ConnectFields.compile(config, fieldPaths, rules, tokenizer, partialMask, detectors);
+
+        RecordFilter filter = RecordFilter.compile(config);
+
+        String fingerprint = fingerprint(config, rules, connectFields, tokenizer);
+
+        return new MaskingPlan(filter, rules, automaton, connectFieldTokens, tokenizer, partialMask, engine, connectMasker, prefilter, connectFields, fingerprint);
+    }
+
+    /**
+     * The engine, prefilter, filters and failure policy are left out, as they do not change the masked output.
+     * The HMAC key is only represented by a token, so the fingerprint does not hash the key itself.
+     *
+     * @return the first 8 bytes of a SHA-256 over the settings, in hex.
+     */
+    static String fingerprint(MaskJsonFieldConfig config, MaskingRule[] rules, ConnectFields connectFields, Tokenizer tokenizer) {
+        StringBuilder settings = new StringBuilder();
+        append(settings, config.getString(MASKING_TARGET));
+        if (connectFields == null) {
+            append(settings, config.getString(CONNECT_FIELD_NAME));
+            append(settings, rules);
+        } else {
+            for (ConnectFields.JsonField field : connectFields.fields) {
+                append(settings, field.name);
+                append(settings, field.rules);
+            }
+        }
+        append(settings, String.join(",", config.getList(DETECTORS)));
+        append(settings, config.getString(DETECTOR_REPLACEMENT));
+        append(settings, config.getString(REPLACEMENT_MODE));
+        if (tokenizer != null) {
+            append(settings, tokenizer.hash(FINGERPRINT_PROBE));
+        }
+        if (REPLACEMENT_MODE_PARTIAL.equals(config.getString(REPLACEMENT_MODE))) {
+            append(settings, config.getInt(PARTIAL_KEEP_FIRST).toString());
+            append(settings, config.getInt(PARTIAL_KEEP_LAST).toString());
+            append(settings, config.getString(PARTIAL_MASK_CHAR));
+            append(settings, config.getBoolean(PARTIAL_PRESERVE_SEPARATORS).toString());
+        }
+
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(settings.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM has SHA-256.
+            throw new IllegalStateException(e);
+        }
+        StringBuilder hex = new StringBuilder(16);
+        for (int i = 0; i < 8; i++) {
+            hex.append(Character.forDigit((hash[i] >> 4) & 0xf, 16)).append(Character.forDigit(hash[i] & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Appends the value with its length, so that different lists of values never append the same text.
+     */
+    private static void append(StringBuilder settings, String value) {
+        settings.append(value.length()).append(':').append(value);
+    }
+
+    private static void append(StringBuilder settings, MaskingRule[] rules) {
+        settings.append(rules.length).append(':');
+        for (MaskingRule rule : rules) {
+            append(settings, rule.path);
+            append(settings, rule.replacementString);
+            append(settings, rule.intLiteral);
+            append(settings, rule.longLiteral);
+            append(settings, rule.doubleLiteral);
+        }
+    }
+}
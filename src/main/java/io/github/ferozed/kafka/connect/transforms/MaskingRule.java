@@ -0,0 +1,163 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.node.BigIntegerNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.FloatNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.apache.kafka.common.config.ConfigException;
+
+import java.math.BigInteger;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * A compiled {@link ReplacementPath}: the parsed pointer and the replacement values for every json type,
+ * as values, as nodes for the tree engine, and as serialized literals for the splice engine.
+ *
+ * Besides plain JsonPointers, a path may use wildcard segments: {@code *} matches any single property or
+ * array index, and {@code **} matches any number of levels, including none. For eg {@code /users/*}{@code /ssn}
+ * or {@code **}{@code /ssn}.
+ *
+ * Instances are immutable, and shared by all records.
+ */
+final class MaskingRule {
+    final String path;
+
+    /**
+     * True if the path has {@code *} or {@code **} segments. Such paths can only be matched with the {@link PathAutomaton},
+     * {@code pointer}, {@code head} and {@code last*} are not meaningful for them.
+     */
+    final boolean wildcard;
+    final JsonPointer pointer;
+    final JsonPointer head;
+    final String lastProperty;
+    final int lastIndex;
+
+    /**
+     * {@code properties[j]} is the j-th pointer segment as a property name, and {@code indexes[j]}
+     * is the same segment as an array index, or -1 if it is not a number.
+     */
+    final String[] properties;
+    final int[] indexes;
+
+    final String replacementString;
+    final int replacementInt;
+    final long replacementLong;
+    final double replacementDouble;
+
+    /**
+     * {@link #replacementDouble} for float fields, clamped to the range of a float so that it stays finite.
+     */
+    final float replacementFloat;
+
+    final TextNode textNode;
+    final IntNode intNode;
+    final LongNode longNode;
+    final BigIntegerNode bigIntegerNode;
+    final FloatNode floatNode;
+    final DoubleNode doubleNode;
+
+    final String stringLiteral;
+    final String intLiteral;
+    final String longLiteral;
+    final String floatLiteral;
+    final String doubleLiteral;
+
+    MaskingRule(ReplacementPath replacementPath, MaskJsonFieldConfig config) {
+        this.path = replacementPath.getPath();
+        try {
+            // "**/ssn" is accepted as a shorthand for "/**/ssn".
+            this.pointer = JsonPointer.compile(path.startsWith(PathAutomaton.ANY_DEPTH) ? "/" + path : path);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigException(REPLACEMENT_FIELD_PATH, path, e.getMessage());
+        }
+        this.head = pointer.head();
+        this.lastProperty = pointer.last() == null ? null : pointer.last().getMatchingProperty();
+        this.lastIndex = pointer.last() == null ? -1 : pointer.last().getMatchingIndex();
+
+        int length = 0;
+        for (JsonPointer p = pointer; !p.matches(); p = p.tail()) {
+            length++;
+        }
+        this.properties = new String[length];
+        this.indexes = new int[length];
+        int j = 0;
+        boolean wildcard = false;
+        for (JsonPointer p = pointer; !p.matches(); p = p.tail(), j++) {
+            properties[j] = p.getMatchingProperty();
+            indexes[j] = p.getMatchingIndex();
+            wildcard |= PathAutomaton.ANY.equals(properties[j]) || PathAutomaton.ANY_DEPTH.equals(properties[j]);
+        }
+        this.wildcard = wildcard;
+
+        String replacement = replacementPath.getReplacement();
+        this.replacementString = replacement != null ? replacement : config.getString(REPLACEMENT_VALUE_STRING);
+        this.replacementInt = parseInt(replacement, config.getInt(REPLACEMENT_VALUE_INT));
+        this.replacementLong = parseLong(replacement, config.getLong(REPLACEMENT_VALUE_LONG));
+        this.replacementDouble = parseDouble(replacement, config.getDouble(REPLACEMENT_VALUE_DOUBLE));
+        this.replacementFloat = (float) Math.max(-Float.MAX_VALUE, Math.min(Float.MAX_VALUE, replacementDouble));
+
+        this.textNode = TextNode.valueOf(replacementString);
+        this.intNode = IntNode.valueOf(replacementInt);
+        this.longNode = LongNode.valueOf(replacementLong);
+        this.bigIntegerNode = BigIntegerNode.valueOf(BigInteger.valueOf(replacementInt));
+        this.floatNode = FloatNode.valueOf(replacementFloat);
+        this.doubleNode = DoubleNode.valueOf(replacementDouble);
+
+        this.stringLiteral = '"' + new String(JsonStringEncoder.getInstance().quoteAsString(replacementString)) + '"';
+        this.intLiteral = Integer.toString(replacementInt);
+        this.longLiteral = Long.toString(replacementLong);
+        this.floatLiteral = Float.toString(replacementFloat);
+        this.doubleLiteral = Double.toString(replacementDouble);
+    }
+
+    private static int parseInt(String replacement, int defaultValue) {
+        try {
+            return replacement != null ? Integer.parseInt(replacement) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static long parseLong(String replacement, long defaultValue) {
+        try {
+            return replacement != null ? Long.parseLong(replacement) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static double parseDouble(String replacement, double defaultValue) {
+        try {
+            double value = replacement != null ? Double.parseDouble(replacement) : defaultValue;
+            // NaN and Infinity are not valid JSON.
+            return Double.isFinite(value) ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import java.util.Map;
+
+/**
+ * An immutable map from property names to values, for lookups on the per-token path.
+ *
+ * The names are interned, and the table is a perfect hash where possible: the slot is picked from the cached
+ * {@link String#hashCode()} with a multiplier that puts every name in a slot of its own. Jackson interns the
+ * property names it reads ({@code JsonFactory.Feature.INTERN_FIELD_NAMES}), so a lookup of a name from the
+ * parser is one multiply, one array read and one reference compare, however many names there are.
+ * Names from elsewhere fall back to {@link String#equals}.
+ */
+final class NameTable<V> {
+    private static final int[] MULTIPLIERS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0x7FEB352D};
+
+    /**
+     * A perfect hash is searched for in tables of up to {@code 2^EXTRA_BITS} times the smallest size.
+     */
+    private static final int EXTRA_BITS = 3;
+
+    private final String[] names;
+    private final int[] hashes;
+    private final Object[] values;
+    private final int multiplier;
+    private final int shift;
+
+    /**
+     * False if no perfect hash was found, and collisions are probed linearly.
+     */
+    private final boolean probe;
+
+    private NameTable(String[] names, int[] hashes, Object[] values, int multiplier, int shift, boolean probe) {
+        this.names = names;
+        this.hashes = hashes;
+        this.values = values;
+        this.multiplier = multiplier;
+        this.shift = shift;
+        this.probe = probe;
+    }
+
+    static <V> NameTable<V> of(Map<String, V> map) {
+        // at least twice as many slots as names, and at least two.
+        int minBits = Math.max(1, 33 - Integer.numberOfLeadingZeros(Math.max(1, map.size())));
+        for (int bits = minBits; bits <= Math.min(30, minBits + EXTRA_BITS); bits++) {
+            for (int multiplier : MULTIPLIERS) {
+                NameTable<V> table = build(map, bits, multiplier, false);
+                if (table != null) {
+                    return table;
+                }
+            }
+        }
+        return build(map, minBits, MULTIPLIERS[0], true);
+    }
+
+    /**
+     * @return the table, or null if two names share a slot and {@code probe} is false.
+     */
+    private static <V> NameTable<V> build(Map<String, V> map, int bits, int multiplier, boolean probe) {
+        int size = 1 << bits;
+        int shift = 32 - bits;
+        String[] names = new String[size];
+        int[] hashes = new int[size];
+        Object[] values = new Object[size];
+        for (Map.Entry<String, V> entry : map.entrySet()) {
+            String name = entry.getKey().intern();
+            int hash = name.hashCode();
+            int slot = (hash * multiplier) >>> shift;
+            while (names[slot] != null) {
+                if (!probe) {
+                    return null;
+                }
+                slot = (slot + 1) & (size - 1);
+            }
+            names[slot] = name;
+            hashes[slot] = hash;
+            values[slot] = entry.getValue();
+        }
+        return new NameTable<>(names, hashes, values, multiplier, shift, probe);
+    }
+
+    /**
+     * @return the value of {@code name}, or null.
+     */
+    @SuppressWarnings("unchecked")
+    V get(String name) {
+        int hash = name.hashCode();
+        int slot = (hash * multiplier) >>> shift;
+        while (true) {
+            String candidate = names[slot];
+            if (candidate == name) {
+                return (V) values[slot];
+            }
+            if (candidate == null) {
+                return null;
+            }
+            if (hashes[slot] == hash && candidate.equals(name)) {
+                return (V) values[slot];
+            }
+            if (!probe) {
+                return null;
+            }
+            slot = (slot + 1) & (names.length - 1);
+        }
+    }
+
+    /**
+     * @return true if every name has a slot of its own.
+     */
+    boolean isPerfect() {
+        return !probe;
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Masks string values in part, for {@code REPLACEMENT_MODE=PARTIAL}: the first {@code keepFirst} and the last
+ * {@code keepLast} characters are kept, and every other character is replaced with the mask char. With
+ * {@code preserveSeparators}, ASCII chars that are not letters or digits, for eg {@code -} or a space, are kept
+ * and not counted, so {@code 111-22-1212} becomes {@code ***-**-1212} with {@code keepLast=4}.
+ *
+ * Characters are counted in code points. If a value has no more than {@code keepFirst + keepLast} characters,
+ * all of them are masked, so that short values are not kept whole.
+ *
+ * The masking works on char arrays and on the raw JSON text of the value, so it does not create a
+ * {@link String} per value.
+ */
+final class PartialMask {
+    private final int keepFirst;
+    private final int keepLast;
+    private final char maskChar;
+    private final byte[] maskBytes;
+    private final boolean preserveSeparators;
+
+    PartialMask(int keepFirst, int keepLast, char maskChar, boolean preserveSeparators) {
+        this.keepFirst = keepFirst;
+        this.keepLast = keepLast;
+        this.maskChar = maskChar;
+        this.maskBytes = String.valueOf(maskChar).getBytes(StandardCharsets.UTF_8);
+        this.preserveSeparators = preserveSeparators;
+    }
+
+    /**
+     * @return the partial mask, or null if {@code REPLACEMENT_MODE} is not {@code PARTIAL}.
+     */
+    static PartialMask create(MaskJsonFieldConfig config) {
+        if (!REPLACEMENT_MODE_PARTIAL.equals(config.getString(REPLACEMENT_MODE))) {
+            return null;
+        }
+        String maskChar = config.getString(PARTIAL_MASK_CHAR);
+        if (maskChar.length() != 1 || maskChar.charAt(0) < ' ' || maskChar.charAt(0) == '"'
+                || maskChar.charAt(0) == '\\' || Character.isSurrogate(maskChar.charAt(0))) {
+            throw new ConfigException(PARTIAL_MASK_CHAR, maskChar, "must be a single char that does not need escaping in JSON");
+        }
+        return new PartialMask(
+                config.getInt(PARTIAL_KEEP_FIRST),
+                config.getInt(PARTIAL_KEEP_LAST),
+                maskChar.charAt(0),
+                config.getBoolean(PARTIAL_PRESERVE_SEPARATORS)
+        );
+    }
+
+    private boolean counted(int c) {
+        return !preserveSeparators || c >= 0x80 || Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * @param index of a counted char
+     * @param count of counted chars in the value
+     */
+    private boolean masked(int index, int count) {
+        return count <= keepFirst + keepLast || (index >= keepFirst && index < count - keepLast);
+    }
+
+    /**
+     * Masks {@code text[offset, offset + length)} into {@code out}, starting at {@code outOffset}. The output is never
+     * longer than the input, so {@code out} may be {@code text}, as long as {@code outOffset <= offset}.
+     *
+     * @return number of chars written.
+     */
+    int mask(char[] text, int offset, int length, char[] out, int outOffset) {
+        int end = offset + length;
+        int count = 0;
+        for (int i = offset; i < end; i++) {
+            if (!Character.isLowSurrogate(text[i]) && counted(text[i])) {
+                count++;
+            }
+        }
+
+        int written = outOffset;
+        int index = 0;
+        boolean masked = false;
+        for (int i = offset; i < end; i++) {
+            char c = text[i];
+            if (Character.isLowSurrogate(c)) {
+                // the rest of a code point.
+                if (!masked) {
+                    out[written++] = c;
+                }
+            } else if (!counted(c)) {
+                out[written++] = c;
+                masked = false;
+            } else {
+                masked = masked(index++, count);
+                out[written++] = masked ? maskChar : c;
+            }
+        }
+        return written - outOffset;
+    }
+
+    /**
+     * Masks a value with a new {@link String}, for callers that need one anyway.
+     */
+    String mask(String value) {
+        char[] text = MaskingBuffers.get().text(value.length());
+        value.getChars(0, value.length(), text, 0);
+        return new String(text, 0, mask(text, 0, value.length(), text, 0));
+    }
+
+    /**
+     * Writes the masked form of a JSON string literal, quotes included, that spans {@code json[start, end)}.
+     * Kept chars are copied as written, escape sequences included.
+     */
+    void mask(String json, int start, int end, Writer out) throws IOException {
+        int from = start + 1;
+        int to = end - 1;
+
+        int count = 0;
+        for (int i = from; i < to; i = nextChar(json, i)) {
+            int c = charAt(json, i);
+            if (!Character.isLowSurrogate((char) c) && counted(c)) {
+                count++;
+            }
+        }
+
+        out.write('"');
+        int index = 0;
+        boolean masked = false;
+        for (int i = from; i < to; ) {
+            int c = charAt(json, i);
+            int next = nextChar(json, i);
+            if (Character.isLowSurrogate((char) c)) {
+                if (!masked) {
+                    out.write(json, i, next - i);
+                }
+            } else if (!counted(c)) {
+                out.write(json, i, next - i);
+                masked = false;
+            } else {
+                masked = masked(index++, count);
+                if (masked) {
+                    out.write(maskChar);
+                } else {
+                    out.write(json, i, next - i);
+                }
+            }
+            i = next;
+        }
+        out.write('"');
+    }
+
+    /**
+     * Writes the masked form of a UTF-8 encoded JSON string literal, quotes included, that spans
+     * {@code json[start, end)}, to {@code out} at {@code offset}. Pass a null {@code out} to only get the length.
+     *
+     * @return number of bytes written.
+     */
+    int mask(byte[] json, int start, int end, byte[] out, int offset) {
+        int from = start + 1;
+        int to = end - 1;
+
+        int count = 0;
+        for (int i = from; i < to; i = nextChar(json, i)) {
+            int c = charAt(json, i);
+            if (!Character.isLowSurrogate((char) c) && counted(c)) {
+                count++;
+            }
+        }
+
+        int written = offset;
+        written = put(out, written, json, start, 1);
+        int index = 0;
+        boolean masked = false;
+        for (int i = from; i < to; ) {
+            int c = charAt(json, i);
+            int next = nextChar(json, i);
+            if (Character.isLowSurrogate((char) c)) {
+                if (!masked) {
+                    written = put(out, written, json, i, next - i);
+                }
+            } else if (!counted(c)) {
+                written = put(out, written, json, i, next - i);
+                masked = false;
+            } else {
+                masked = masked(index++, count);
+                written = masked
+                        ? put(out, written, maskBytes, 0, maskBytes.length)
+                        : put(out, written, json, i, next - i);
+            }
+            i = next;
+        }
+        written = put(out, written, json, end - 1, 1);
+        return written - offset;
+    }
+
+    private static int put(byte[] out, int offset, byte[] bytes, int from, int length) {
+        if (out != null) {
+            System.arraycopy(bytes, from, out, offset, length);
+        }
+        return offset + length;
+    }
+
+    /**
+     * @return the index after the char, or escape sequence, at {@code i} of a JSON string literal.
+     */
+    private static int nextChar(String json, int i) {
+        if (json.charAt(i) != '\\') {
+            return i + 1;
+        }
+        return json.charAt(i + 1) == 'u' ? i + 6 : i + 2;
+    }
+
+    /**
+     * @return the char at {@code i} of a JSON string literal, with escape sequences decoded.
+     */
+    private static int charAt(String json, int i) {
+        char c = json.charAt(i);
+        if (c != '\\') {
+            return c;
+        }
+        c = json.charAt(i + 1);
+        return c == 'u' ? hex(json, i + 2) : unescape(c);
+    }
+
+    /**
+     * @return the index after the UTF-8 sequence, or escape sequence, at {@code i} of a JSON string literal.
+     */
+    private static int nextChar(byte[] json, int i) {
+        int b = json[i] & 0xff;
+        if (b == '\\') {
+            return json[i + 1] == 'u' ? i + 6 : i + 2;
+        }
+        return b < 0x80 ? i + 1 : b < 0xe0 ? i + 2 : b < 0xf0 ? i + 3 : i + 4;
+    }
+
+    /**
+     * @return the char at {@code i} of a UTF-8 encoded JSON string literal, with escape sequences decoded.
+     * Non-ASCII chars are returned as 0x80, since only their being non-ASCII matters.
+     */
+    private static int charAt(byte[] json, int i) {
+        int b = json[i] & 0xff;
+        if (b >= 0x80) {
+            return 0x80;
+        }
+        if (b != '\\') {
+            return b;
+        }
+        return json[i + 1] == 'u' ? hex(json, i + 2) : unescape((char) json[i + 1]);
+    }
+
+    private static int hex(String json, int i) {
+        int value = 0;
+        for (int j = i; j < i + 4; j++) {
+            value = value << 4 | Character.digit(json.charAt(j), 16);
+        }
+        return value;
+    }
+
+    private static int hex(byte[] json, int i) {
+        int value = 0;
+        for (int j = i; j < i + 4; j++) {
+            value = value << 4 | Character.digit(json[j], 16);
+        }
+        return value;
+    }
+
+    private static char unescape(char c) {
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            default:
+                return c;
+        }
+    }
+}
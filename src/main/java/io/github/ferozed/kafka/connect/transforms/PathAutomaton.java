@@ -0,0 +1,246 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.kafka.common.config.ConfigException;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A deterministic automaton over the paths of all masking rules, built once when the plan is compiled.
+ *
+ * Each state is the set of (rule, segment) positions that are still alive. Transitions are keyed on the
+ * property names and array indexes that appear literally in the rules; every other key takes the same
+ * "other" transition, so the automaton is finite even with {@code *} and {@code **} segments.
+ *
+ * Walking a document costs one {@link NameTable} lookup per value, no matter how many rules there are.
+ */
+final class PathAutomaton {
+    static final String ANY = "*";
+    static final String ANY_DEPTH = "**";
+
+    /**
+     * Upper bound on the number of states, to protect against patterns that blow up when determinized.
+     */
+    static final int MAX_STATES = 10_000;
+
+    static final State DEAD = new State(-1);
+
+    final State start;
+
+    private PathAutomaton(State start) {
+        this.start = start;
+    }
+
+    static final class State {
+        /**
+         * Index of the first rule whose path ends in this state, or -1.
+         */
+        final int accept;
+
+        /**
+         * Only used while the automaton is built, then replaced by {@link #propertyTable}.
+         */
+        private Map<String, State> properties;
+        private NameTable<State> propertyTable;
+        private State otherProperty;
+        private int[] indexKeys;
+        private State[] indexStates;
+        private State otherIndex;
+
+        private State(int accept) {
+            this.accept = accept;
+            this.properties = new HashMap<>();
+            this.propertyTable = NameTable.of(Collections.emptyMap());
+            this.otherProperty = this;
+            this.indexKeys = new int[0];
+            this.indexStates = new State[0];
+            this.otherIndex = this;
+        }
+
+        boolean isDead() {
+            return this == DEAD;
+        }
+
+        State property(String name) {
+            State state = propertyTable.get(name);
+            return state != null ? state : otherProperty;
+        }
+
+        State index(int index) {
+            int i = Arrays.binarySearch(indexKeys, index);
+            return i >= 0 ? indexStates[i] : otherIndex;
+        }
+
+        /**
+         * Transition on the key of the value the parser is currently on.
+         * Must only be called when the parser is on a value token, below the root.
+         */
+        State next(JsonParser parser, JsonToken token) {
+            // for START_OBJECT / START_ARRAY the parser has already entered the new scope.
+            JsonStreamContext context = token.isStructStart()
+                    ? parser.getParsingContext().getParent()
+                    : parser.getParsingContext();
+            return context.inObject() ? property(context.getCurrentName()) : index(context.getCurrentIndex());
+        }
+    }
+
+    static PathAutomaton compile(MaskingRule[] rules) {
+        Map<BitSet, State> states = new HashMap<>();
+        Deque<BitSet> pending = new ArrayDeque<>();
+
+        // a position is encoded as offset[rule] + segment, where segment == length means the path ended.
+        int[] offsets = new int[rules.length + 1];
+        for (int i = 0; i < rules.length; i++) {
+            offsets[i + 1] = offsets[i] + rules[i].properties.length + 1;
+        }
+
+        BitSet initial = new BitSet();
+        for (int i = 0; i < rules.length; i++) {
+            addPosition(initial, rules, offsets, i, 0);
+        }
+        State start = stateFor(initial, rules, offsets, states, pending);
+
+        while (!pending.isEmpty()) {
+            BitSet positions = pending.poll();
+            State state = states.get(positions);
+
+            // the keys that appear literally in the live segments.
+            TreeSet<String> propertyKeys = new TreeSet<>();
+            TreeSet<Integer> indexKeys = new TreeSet<>();
+            forEachLiveSegment(positions, rules, offsets, (rule, segment) -> {
+                String property = rules[rule].properties[segment];
+                if (!ANY.equals(property) && !ANY_DEPTH.equals(property)) {
+                    propertyKeys.add(property);
+                    if (rules[rule].indexes[segment] >= 0) {
+                        indexKeys.add(rules[rule].indexes[segment]);
+                    }
+                }
+            });
+
+            for (String key : propertyKeys) {
+                state.properties.put(key, stateFor(step(positions, rules, offsets, key, -1), rules, offsets, states, pending));
+            }
+            // only wildcard segments match a key that does not appear literally, be it a property or an index.
+            State other = stateFor(step(positions, rules, offsets, null, -1), rules, offsets, states, pending);
+            state.otherProperty = other;
+
+            state.indexKeys = new int[indexKeys.size()];
+            state.indexStates = new State[indexKeys.size()];
+            int i = 0;
+            for (Integer key : indexKeys) {
+                state.indexKeys[i] = key;
+                state.indexStates[i] = stateFor(step(positions, rules, offsets, null, key), rules, offsets, states, pending);
+                i++;
+            }
+            state.otherIndex = other;
+        }
+
+        for (State state : states.values()) {
+            state.propertyTable = NameTable.of(state.properties);
+            state.properties = null;
+        }
+
+        return new PathAutomaton(start);
+    }
+
+    private interface SegmentConsumer {
+        void accept(int rule, int segment);
+    }
+
+    private static void forEachLiveSegment(BitSet positions, MaskingRule[] rules, int[] offsets, SegmentConsumer consumer) {
+        for (int rule = 0; rule < rules.length; rule++) {
+            int length = rules[rule].properties.length;
+            for (int segment = 0; segment < length; segment++) {
+                if (positions.get(offsets[rule] + segment)) {
+                    consumer.accept(rule, segment);
+                }
+            }
+        }
+    }
+
+    /**
+     * Consumes one key. {@code property} is the property name, or null for any property that does not appear
+     * literally. {@code index} is the array index, or -1.
+     */
+    private static BitSet step(BitSet positions, MaskingRule[] rules, int[] offsets, String property, int index) {
+        BitSet next = new BitSet();
+        forEachLiveSegment(positions, rules, offsets, (rule, segment) -> {
+            String segmentProperty = rules[rule].properties[segment];
+            if (ANY_DEPTH.equals(segmentProperty)) {
+                // consume one more level and stay on the same segment.
+                addPosition(next, rules, offsets, rule, segment);
+            } else if (ANY.equals(segmentProperty)
+                    || (property != null && property.equals(segmentProperty))
+                    || (index >= 0 && index == rules[rule].indexes[segment])) {
+                addPosition(next, rules, offsets, rule, segment + 1);
+            }
+        });
+        return next;
+    }
+
+    /**
+     * Adds a position, and the positions after any {@code **} segments, since those may match zero levels.
+     */
+    private static void addPosition(BitSet positions, MaskingRule[] rules, int[] offsets, int rule, int segment) {
+        String[] properties = rules[rule].properties;
+        positions.set(offsets[rule] + segment);
+        while (segment < properties.length && ANY_DEPTH.equals(properties[segment])) {
+            segment++;
+            positions.set(offsets[rule] + segment);
+        }
+    }
+
+    private static State stateFor(
+            BitSet positions,
+            MaskingRule[] rules,
+            int[] offsets,
+            Map<BitSet, State> states,
+            Deque<BitSet> pending
+    ) {
+        if (positions.isEmpty()) {
+            return DEAD;
+        }
+        State state = states.get(positions);
+        if (state == null) {
+            if (states.size() >= MAX_STATES) {
+                throw new ConfigException(
+                        "The replacement paths need more than " + MAX_STATES + " automaton states. Use fewer wildcards."
+                );
+            }
+            int accept = -1;
+            for (int rule = 0; rule < rules.length && accept < 0; rule++) {
+                if (positions.get(offsets[rule] + rules[rule].properties.length)) {
+                    accept = rule;
+                }
+            }
+            state = new State(accept);
+            states.put(positions, state);
+            pending.add(positions);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Looks for PII that is still in masked payloads, for eg because a pointer no longer matches the documents,
+ * for {@code AUDIT_SAMPLE_RATE}.
+ *
+ * {@link #sample} copies a reference to a share of the masked payloads into a bounded ring, and a daemon thread
+ * scans them with {@link PiiDetectors}. The ring is lock free, and a sample is dropped when it is full, so the
+ * masking threads never wait on the auditor. Findings are counted in the metrics, and logged at most once per
+ * second, without the payload.
+ */
+final class PayloadAuditor {
+    private static final Logger log = LoggerFactory.getLogger(PayloadAuditor.class);
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long ALERT_LOG_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final double sampleRate;
+    private final Ring ring;
+    private final PiiDetectors detectors;
+    private final MaskJsonFieldMetrics metrics;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Only used by the audit thread.
+     */
+    private final Findings findings = new Findings();
+    private long lastAlertLog = System.nanoTime() - ALERT_LOG_INTERVAL;
+
+    PayloadAuditor(double sampleRate, int queueSize, List<String> detectors, MaskJsonFieldMetrics metrics) {
+        this.sampleRate = sampleRate;
+        this.ring = new Ring(queueSize);
+        this.detectors = new PiiDetectors(detectors, "", null, null);
+        this.metrics = metrics;
+        this.thread = new Thread(this::run, "mask-json-field-auditor-" + THREADS.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return a started auditor, or null if {@code AUDIT_SAMPLE_RATE} is 0.
+     */
+    static PayloadAuditor create(MaskJsonFieldConfig config, MaskJsonFieldMetrics metrics) {
+        double sampleRate = config.getDouble(AUDIT_SAMPLE_RATE);
+        if (sampleRate <= 0) {
+            return null;
+        }
+        return new PayloadAuditor(sampleRate, config.getInt(AUDIT_QUEUE_SIZE), config.getList(AUDIT_DETECTORS), metrics);
+    }
+
+    /**
+     * Queues the masked payload of the record for the audit thread, if it is sampled. Never blocks.
+     *
+     * @param payload a String or UTF-8 bytes
+     */
+    void sample(ConnectRecord<?> record, Object payload) {
+        if (payload == null || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        metrics.auditSampled();
+        Sample sample = new Sample(record.topic(), record.kafkaPartition(), MaskJsonField.offsetOf(record), payload);
+        if (!ring.offer(sample)) {
+            metrics.auditDropped();
+        }
+    }
+
+    /**
+     * Stops the audit thread. Samples still in the ring are not scanned.
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (running) {
+            Sample sample = ring.poll();
+            if (sample == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                audit(sample);
+            } catch (RuntimeException e) {
+                log.warn("Could not audit a payload of topic={} partition={}.", sample.topic, sample.partition, e);
+            }
+        }
+    }
+
+    private void audit(Sample sample) {
+        String text = sample.payload instanceof String
+                ? (String) sample.payload
+                : new String((byte[]) sample.payload, StandardCharsets.UTF_8);
+
+        findings.clear();
+        detectors.redact(text, findings);
+        metrics.auditScanned();
+        if (findings.count == 0) {
+            return;
+        }
+
+        metrics.auditLeak();
+        long now = System.nanoTime();
+        if (now - lastAlertLog >= ALERT_LOG_INTERVAL) {
+            lastAlertLog = now;
+            log.warn(
+                    "A masked payload still has {} value(s) that look like {}. topic={} partition={} offset={} auditLeaks={}",
+                    findings.count,
+                    findings.names(),
+                    sample.topic,
+                    sample.partition,
+                    sample.offset,
+                    metrics.getAuditLeaks()
+            );
+        }
+    }
+
+    private static final class Sample {
+        final String topic;
+        final Integer partition;
+        final Object offset;
+        final Object payload;
+
+        Sample(String topic, Integer partition, Object offset, Object payload) {
+            this.topic = topic;
+            this.partition = partition;
+            this.offset = offset;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * What the detectors found in one payload.
+     */
+    private final class Findings implements MaskingListener {
+        int count;
+        private final boolean[] found = new boolean[PiiDetectors.NAMES.length];
+
+        void clear() {
+            count = 0;
+            Arrays.fill(found, false);
+        }
+
+        String names() {
+            StringBuilder names = new StringBuilder();
+            for (int i = 0; i < found.length; i++) {
+                if (found[i]) {
+                    names.append(names.length() > 0 ? "," : "").append(PiiDetectors.NAMES[i]);
+                }
+            }
+            return names.toString();
+        }
+
+        @Override
+        public void detected(int detector) {
+            count++;
+            found[detector] = true;
+            metrics.auditDetected(detector);
+        }
+
+        @Override
+        public void matched(int rule) {
+        }
+
+        @Override
+        public void parsed(long nanos) {
+        }
+
+        @Override
+        public void mutated(long nanos) {
+        }
+
+        @Override
+        public void serialized(long nanos) {
+        }
+    }
+
+    /**
+     * A bounded ring for many producers and one consumer. Producers claim a slot by moving {@code tail} with a
+     * compare and set, as long as the ring is not full, then publish the sample into it. The consumer takes
+     * samples in claim order, and frees their slot by moving {@code head}.
+     */
+    static final class Ring {
+        private final AtomicReferenceArray<Object> slots;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;
+
+        Ring(int capacity) {
+            int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        /**
+         * @return false if the ring is full.
+         */
+        boolean offer(Object item) {
+            while (true) {
+                long claimed = tail.get();
+                if (claimed - head > mask) {
+                    return false;
+                }
+                if (tail.compareAndSet(claimed, claimed + 1)) {
+                    slots.lazySet((int) claimed & mask, item);
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Only called by the consumer.
+         *
+         * @return the oldest item, or null if there is none, or it is claimed but not published yet.
+         */
+        @SuppressWarnings("unchecked")
+        <T> T poll() {
+            long current = head;
+            int slot = (int) current & mask;
+            Object item = slots.get(slot);
+            if (item == null) {
+                return null;
+            }
+            slots.lazySet(slot, null);
+            head = current + 1;
+            return (T) item;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import java.util.List;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Finds PII in free text, for {@code DETECTORS}: US social security numbers, Luhn valid card numbers, email
+ * addresses and phone numbers.
+ *
+ * All detectors share one left to right scan of the text. Runs of digits and separators are read once and then
+ * classified by their shape, and email addresses are read around each {@code @}. Every char is looked at a bounded
+ * number of times, so the cost is linear in the length of the text, however many detectors are enabled.
+ * No regular expressions are used.
+ *
+ * Detected values are replaced with their token or partial mask if {@code REPLACEMENT_MODE} is {@code HMAC} or
+ * {@code PARTIAL}, and with {@code DETECTOR_REPLACEMENT} otherwise.
+ */
+final class PiiDetectors {
+    static final int SSN = 0;
+    static final int PAN = 1;
+    static final int EMAIL = 2;
+    static final int PHONE = 3;
+
+    static final String[] NAMES = {DETECTOR_SSN, DETECTOR_PAN, DETECTOR_EMAIL, DETECTOR_PHONE};
+
+    private static final int SEPARATOR_SPACE = 1;
+    private static final int SEPARATOR_DASH = 2;
+    private static final int SEPARATOR_OTHER = 4;
+
+    private final boolean ssn;
+    private final boolean pan;
+    private final boolean email;
+    private final boolean phone;
+    private final boolean numbers;
+
+    private final String replacement;
+    private final Tokenizer tokenizer;
+    private final PartialMask partialMask;
+
+    PiiDetectors(List<String> detectors, String replacement, Tokenizer tokenizer, PartialMask partialMask) {
+        this.ssn = detectors.contains(DETECTOR_SSN);
+        this.pan = detectors.contains(DETECTOR_PAN);
+        this.email = detectors.contains(DETECTOR_EMAIL);
+        this.phone = detectors.contains(DETECTOR_PHONE);
+        this.numbers = ssn || pan || phone;
+        this.replacement = replacement;
+        this.tokenizer = tokenizer;
+        this.partialMask = partialMask;
+    }
+
+    /**
+     * @return the detectors, or null if {@code DETECTORS} is empty.
+     */
+    static PiiDetectors create(MaskJsonFieldConfig config, Tokenizer tokenizer, PartialMask partialMask) {
+        List<String> detectors = config.getList(DETECTORS);
+        if (detectors.isEmpty()) {
+            return null;
+        }
+        return new PiiDetectors(detectors, config.getString(DETECTOR_REPLACEMENT), tokenizer, partialMask);
+    }
+
+    String redact(String text, MaskingListener listener) {
+        return redact(text.toCharArray(), 0, text.length(), listener);
+    }
+
+    /**
+     * @return the text with every detected value replaced, or null if nothing was detected.
+     */
+    String redact(char[] text, int offset, int length, MaskingListener listener) {
+        int end = offset + length;
+        StringBuilder out = null;
+        // text before this has been copied to out, or was part of a detected value.
+        int copied = offset;
+
+        int i = offset;
+        while (i < end) {
+            char c = text[i];
+            int found = -1;
+            int start = i;
+            int next = i + 1;
+
+            if (c == '@') {
+                if (email) {
+                    start = emailStart(text, copied, i);
+                    int emailEnd = start < i ? emailEnd(text, i, end) : -1;
+                    if (emailEnd > 0) {
+                        found = EMAIL;
+                        next = emailEnd;
+                    }
+                }
+            } else if (numbers && startsNumber(text, i, end) && (i == offset || !isWordChar(text[i - 1]))) {
+                long number = scanNumber(text, i, end);
+                next = (int) number;
+                found = (int) (number >> 32);
+            }
+
+            if (found >= 0) {
+                if (out == null) {
+                    out = new StringBuilder(length + 16);
+                }
+                out.append(text, copied, start - copied);
+                out.append(replacementFor(new String(text, start, next - start)));
+                copied = next;
+                listener.detected(found);
+            }
+            i = next;
+        }
+
+        if (out == null) {
+            return null;
+        }
+        return out.append(text, copied, end - copied).toString();
+    }
+
+    private String replacementFor(String value) {
+        if (tokenizer != null) {
+            return tokenizer.token(value);
+        } else if (partialMask != null) {
+            return partialMask.mask(value);
+        }
+        return replacement;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWordChar(char c) {
+        return isDigit(c) || isLetter(c) || c == '_' || Character.isLetter(c);
+    }
+
+    private static boolean startsNumber(char[] text, int i, int end) {
+        char c = text[i];
+        return isDigit(c) || ((c == '+' || c == '(') && i + 1 < end && isDigit(text[i + 1]));
+    }
+
+    /**
+     * Reads a run of digits and separators that starts at {@code i}.
+     *
+     * @return the type found, or -1, in the high int, and the end of the run in the low int. If a value was found,
+     * the end of the run is the end of the value.
+     */
+    private long scanNumber(char[] text, int i, int end) {
+        boolean plus = text[i] == '+';
+        boolean paren = text[i] == '(';
+        int j = plus || paren ? i + 1 : i;
+
+        int digits = 0;
+        int groups = 0;
+        // the lengths of the first three groups of digits.
+        int first = 0;
+        int second = 0;
+        int third = 0;
+        int current = 0;
+        // separators only count once a digit follows them.
+        int separators = 0;
+        int pendingSeparators = 0;
+        int separatorRun = 0;
+        int maxSeparatorRun = 0;
+        int lastDigit = j;
+
+        for (; j < end; j++) {
+            char c = text[j];
+            if (isDigit(c)) {
+                if (current == 0) {
+                    groups++;
+                }
+                current++;
+                if (groups == 1) {
+                    first = current;
+                } else if (groups == 2) {
+                    second = current;
+                } else if (groups == 3) {
+                    third = current;
+                }
+                digits++;
+                lastDigit = j;
+                separators |= pendingSeparators;
+                maxSeparatorRun = Math.max(maxSeparatorRun, separatorRun);
+                pendingSeparators = 0;
+                separatorRun = 0;
+            } else if (c == ' ' || c == '-' || c == '.' || c == '(' || c == ')') {
+                if (++separatorRun > 2) {
+                    break;
+                }
+                pendingSeparators |= c == ' ' ? SEPARATOR_SPACE : c == '-' ? SEPARATOR_DASH : SEPARATOR_OTHER;
+                current = 0;
+            } else {
+                break;
+            }
+        }
+
+        int type = -1;
+        int valueEnd = lastDigit + 1;
+        if (valueEnd < end && (isWordChar(text[valueEnd]) || text[valueEnd] == '@')) {
+            // part of a word or an email address.
+            return ((long) type << 32) | valueEnd;
+        }
+
+        if (ssn && !plus && !paren && groups == 3 && maxSeparatorRun == 1
+                && (separators == SEPARATOR_DASH || separators == SEPARATOR_SPACE)
+                && first == 3 && second == 2 && third == 4
+                && isValidSsn(text, i)) {
+            type = SSN;
+        } else if (pan && !plus && !paren && digits >= 13 && digits <= 19 && maxSeparatorRun <= 1
+                && (separators & SEPARATOR_OTHER) == 0
+                && isLuhnValid(text, i, valueEnd)) {
+            type = PAN;
+        } else if (phone && (plus
+                ? digits >= 8 && digits <= 15
+                : digits == 10 && groups == 3 && first == 3 && second == 3 && third == 4)) {
+            type = PHONE;
+        }
+        return ((long) type << 32) | valueEnd;
+    }
+
+    /**
+     * Area 000, 666 and 900-999, group 00 and serial 0000 are never issued.
+     * {@code text[i]} is the first digit of a value shaped like {@code 123-45-6789}.
+     */
+    private static boolean isValidSsn(char[] text, int i) {
+        int area = (text[i] - '0') * 100 + (text[i + 1] - '0') * 10 + (text[i + 2] - '0');
+        int group = (text[i + 4] - '0') * 10 + (text[i + 5] - '0');
+        int serial = (text[i + 7] - '0') * 1000 + (text[i + 8] - '0') * 100 + (text[i + 9] - '0') * 10 + (text[i + 10] - '0');
+        return area != 0 && area != 666 && area < 900 && group != 0 && serial != 0;
+    }
+
+    private static boolean isLuhnValid(char[] text, int start, int end) {
+        int sum = 0;
+        boolean doubled = false;
+        for (int j = end - 1; j >= start; j--) {
+            char c = text[j];
+            if (!isDigit(c)) {
+                continue;
+            }
+            int digit = c - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isDigit(c) || isLetter(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return isDigit(c) || isLetter(c) || c == '-';
+    }
+
+    /**
+     * @return the start of the local part before the {@code @} at {@code at}, or {@code at} if there is none.
+     */
+    private static int emailStart(char[] text, int from, int at) {
+        int start = at;
+        while (start > from && isLocalChar(text[start - 1])) {
+            start--;
+        }
+        while (start < at && text[start] == '.') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * @return the end of the domain after the {@code @} at {@code at}, or -1 if it is not a domain with at least two
+     * labels and a top level domain of letters.
+     */
+    private static int emailEnd(char[] text, int at, int end) {
+        int j = at + 1;
+        int labels = 0;
+        int lastLabelStart = j;
+        int lastLabelEnd = j;
+        while (true) {
+            int labelStart = j;
+            while (j < end && isDomainChar(text[j])) {
+                j++;
+            }
+            if (j == labelStart) {
+                break;
+            }
+            labels++;
+            lastLabelStart = labelStart;
+            lastLabelEnd = j;
+            if (j + 1 < end && text[j] == '.' && isDomainChar(text[j + 1])) {
+                j++;
+            } else {
+                break;
+            }
+        }
+        if (labels < 2 || lastLabelEnd - lastLabelStart < 2) {
+            return -1;
+        }
+        for (int k = lastLabelStart; k < lastLabelEnd; k++) {
+            if (!isLetter(text[k])) {
+                return -1;
+            }
+        }
+        return lastLabelEnd;
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A cheap check on the raw payload, done before any parsing.
+ *
+ * A path can only match if the document has a property named like its last non-numeric segment. The prefilter
+ * looks for that name, in quotes, in the raw payload. If no rule's name is found, the payload is not parsed at all.
+ *
+ * Property names that the payload writes with escape sequences are not found, so such payloads are left as is.
+ */
+final class Prefilter {
+    private final String[] needles;
+    private final byte[][] needleBytes;
+
+    private Prefilter(String[] needles) {
+        this.needles = needles;
+        this.needleBytes = new byte[needles.length][];
+        for (int i = 0; i < needles.length; i++) {
+            needleBytes[i] = needles[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @return the prefilter, or null if some rule has no literal property name to look for, for eg {@code **}{@code /*}.
+     */
+    static Prefilter compile(MaskingRule[] rules) {
+        Set<String> needles = new LinkedHashSet<>();
+        for (MaskingRule rule : rules) {
+            String name = null;
+            for (int i = rule.properties.length - 1; i >= 0 && name == null; i--) {
+                String property = rule.properties[i];
+                if (rule.indexes[i] < 0 && !PathAutomaton.ANY.equals(property) && !PathAutomaton.ANY_DEPTH.equals(property)) {
+                    name = property;
+                }
+            }
+            if (name == null) {
+                return null;
+            }
+            needles.add('"' + new String(JsonStringEncoder.getInstance().quoteAsString(name)) + '"');
+        }
+        return new Prefilter(needles.toArray(new String[0]));
+    }
+
+    /**
+     * @return false if none of the rules can match the payload.
+     */
+    boolean mightMatch(String payload) {
+        if (payload == null) {
+            return false;
+        }
+        for (String needle : needles) {
+            if (payload.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false if none of the rules can match the UTF-8 encoded payload.
+     */
+    boolean mightMatch(byte[] payload) {
+        if (payload == null) {
+            return false;
+        }
+        for (byte[] needle : needleBytes) {
+            if (contains(payload, needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false if none of the rules can match the remaining bytes of the UTF-8 encoded buffer.
+     */
+    boolean mightMatch(ByteBuffer payload) {
+        if (payload == null) {
+            return false;
+        }
+        for (byte[] needle : needleBytes) {
+            if (contains(payload, needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(ByteBuffer payload, byte[] needle) {
+        byte first = needle[0];
+        int last = payload.limit() - needle.length;
+        for (int i = payload.position(); i <= last; i++) {
+            if (payload.get(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < needle.length && payload.get(i + j) == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(byte[] payload, byte[] needle) {
+        byte first = needle[0];
+        int last = payload.length - needle.length;
+        for (int i = 0; i <= last; i++) {
+            if (payload[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < needle.length && payload[i + j] == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
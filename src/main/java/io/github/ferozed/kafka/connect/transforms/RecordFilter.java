@@ -0,0 +1,183 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Decides from the topic and the headers whether a record is masked at all, before anything else is done with it.
+ *
+ * The topic rules are only evaluated once per topic. After that, a topic costs one map lookup.
+ */
+final class RecordFilter {
+    /**
+     * Topics whose decision is remembered. Past that, new topics are evaluated on every record.
+     */
+    static final int MAX_TOPICS = 10_000;
+
+    private final Pattern topicInclude;
+    private final Pattern topicExclude;
+    private final String[] topicPrefixes;
+    private final HeaderRule[] headerInclude;
+    private final HeaderRule[] headerExclude;
+
+    private final Map<String, Boolean> topics = new ConcurrentHashMap<>();
+
+    private RecordFilter(
+            Pattern topicInclude,
+            Pattern topicExclude,
+            String[] topicPrefixes,
+            HeaderRule[] headerInclude,
+            HeaderRule[] headerExclude
+    ) {
+        this.topicInclude = topicInclude;
+        this.topicExclude = topicExclude;
+        this.topicPrefixes = topicPrefixes;
+        this.headerInclude = headerInclude;
+        this.headerExclude = headerExclude;
+    }
+
+    /**
+     * @return the filter, or null if none of the filter configs is set.
+     */
+    static RecordFilter compile(MaskJsonFieldConfig config) {
+        Pattern topicInclude = pattern(config, TOPIC_INCLUDE_PATTERN);
+        Pattern topicExclude = pattern(config, TOPIC_EXCLUDE_PATTERN);
+        List<String> prefixes = config.getList(TOPIC_INCLUDE_PREFIXES);
+        HeaderRule[] headerInclude = headerRules(config.getList(HEADER_INCLUDE));
+        HeaderRule[] headerExclude = headerRules(config.getList(HEADER_EXCLUDE));
+
+        if (topicInclude == null && topicExclude == null && prefixes.isEmpty()
+                && headerInclude.length == 0 && headerExclude.length == 0) {
+            return null;
+        }
+        return new RecordFilter(topicInclude, topicExclude, prefixes.toArray(new String[0]), headerInclude, headerExclude);
+    }
+
+    private static Pattern pattern(MaskJsonFieldConfig config, String name) {
+        String regex = config.getString(name);
+        if (regex.isEmpty()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new ConfigException(name, regex, e.getDescription());
+        }
+    }
+
+    private static HeaderRule[] headerRules(List<String> entries) {
+        HeaderRule[] rules = new HeaderRule[entries.size()];
+        for (int i = 0; i < rules.length; i++) {
+            String entry = entries.get(i);
+            int separator = entry.indexOf('=');
+            rules[i] = separator < 0
+                    ? new HeaderRule(entry, null)
+                    : new HeaderRule(entry.substring(0, separator), entry.substring(separator + 1));
+        }
+        return rules;
+    }
+
+    /**
+     * @return true if the record should be masked.
+     */
+    boolean matches(ConnectRecord<?> record) {
+        if (!matchesTopic(record.topic())) {
+            return false;
+        }
+        if (headerInclude.length == 0 && headerExclude.length == 0) {
+            return true;
+        }
+        Headers headers = record.headers();
+        return (headerInclude.length == 0 || anyMatch(headerInclude, headers)) && !anyMatch(headerExclude, headers);
+    }
+
+    private boolean matchesTopic(String topic) {
+        if (topic == null) {
+            return evaluateTopic("");
+        }
+        Boolean matches = topics.get(topic);
+        if (matches == null) {
+            matches = evaluateTopic(topic);
+            if (topics.size() < MAX_TOPICS) {
+                topics.put(topic, matches);
+            }
+        }
+        return matches;
+    }
+
+    private boolean evaluateTopic(String topic) {
+        boolean included = topicInclude == null && topicPrefixes.length == 0;
+        if (topicInclude != null && topicInclude.matcher(topic).matches()) {
+            included = true;
+        }
+        for (int i = 0; i < topicPrefixes.length && !included; i++) {
+            included = topic.startsWith(topicPrefixes[i]);
+        }
+        return included && (topicExclude == null || !topicExclude.matcher(topic).matches());
+    }
+
+    private static boolean anyMatch(HeaderRule[] rules, Headers headers) {
+        if (headers.isEmpty()) {
+            return false;
+        }
+        for (HeaderRule rule : rules) {
+            Header header = headers.lastWithName(rule.name);
+            if (header != null && rule.matches(header.value())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A header that must be present, and, if {@code value} is not null, have that value.
+     */
+    private static final class HeaderRule {
+        final String name;
+        final String value;
+        final byte[] valueBytes;
+
+        HeaderRule(String name, String value) {
+            this.name = name;
+            this.value = value;
+            this.valueBytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        boolean matches(Object headerValue) {
+            if (value == null) {
+                return true;
+            }
+            if (headerValue instanceof byte[]) {
+                return Arrays.equals(valueBytes, (byte[]) headerValue);
+            }
+            return headerValue != null && value.equals(headerValue.toString());
+        }
+    }
+}
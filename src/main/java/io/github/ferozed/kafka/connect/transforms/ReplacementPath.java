@@ -0,0 +1,103 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+
+/**
+ * A single entry of {@code REPLACEMENT_FIELD_PATHS}.
+ *
+ * Entries are written as {@code <pointer>} or {@code <pointer>=<replacement>}. When a replacement
+ * is given, it overrides the {@code REPLACEMENT_VALUE_*} configs for this pointer only.
+ *
+ * Entries are split on the first {@code =}, and the list of entries on {@code ,}. So in the style of the
+ * JsonPointer escapes, {@code ~2} stands for {@code ,} and {@code ~3} for {@code =} in the pointer, and
+ * {@code ~2} for {@code ,} in the replacement, where {@code ~0} stands for {@code ~}. {@code ~0} and {@code ~1}
+ * keep their JsonPointer meaning in the pointer.
+ */
+public class ReplacementPath {
+    private final String path;
+    private final String replacement;
+
+    public ReplacementPath(String path, String replacement) {
+        this.path = path;
+        this.replacement = replacement;
+    }
+
+    public static ReplacementPath parse(String entry) {
+        String trimmed = entry.trim();
+        int separator = trimmed.indexOf('=');
+        String path = unescape(separator < 0 ? trimmed : trimmed.substring(0, separator).trim(), false);
+        String replacement = separator < 0 ? null : unescape(trimmed.substring(separator + 1), true);
+
+        if (!path.isEmpty() && path.charAt(0) != '/' && !path.startsWith(PathAutomaton.ANY_DEPTH)) {
+            throw new ConfigException(
+                    MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS,
+                    entry,
+                    "JsonPointer must be empty or start with '/' or '**'"
+            );
+        }
+        return new ReplacementPath(path, replacement);
+    }
+
+    /**
+     * Replaces {@code ~2} by {@code ,} and {@code ~3} by {@code =}. Other escapes are left for the JsonPointer,
+     * unless {@code replacement} is true, in which case {@code ~0} is replaced by {@code ~}.
+     */
+    private static String unescape(String text, boolean replacement) {
+        if (text.indexOf('~') < 0) {
+            return text;
+        }
+        StringBuilder unescaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char next = i + 1 < text.length() ? text.charAt(i + 1) : 0;
+            if (c == '~' && next == '2') {
+                unescaped.append(',');
+                i++;
+            } else if (c == '~' && next == '3' && !replacement) {
+                unescaped.append('=');
+                i++;
+            } else if (c == '~' && next == '0' && replacement) {
+                unescaped.append('~');
+                i++;
+            } else if (c == '~' && next != 0) {
+                // keeps the pair, so that ~02 stays the property ~2.
+                unescaped.append(c).append(next);
+                i++;
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the per-path replacement, or null if the {@code REPLACEMENT_VALUE_*} configs should be used.
+     */
+    public String getReplacement() {
+        return replacement;
+    }
+
+    @Override
+    public String toString() {
+        return replacement == null ? path : path + "=" + replacement;
+    }
+}
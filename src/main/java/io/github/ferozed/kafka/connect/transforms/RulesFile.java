@@ -0,0 +1,187 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Masking settings from a local properties file, for {@code RULES_FILE}.
+ *
+ * A daemon thread reads the file every {@code RULES_FILE_POLL_MS}. When its contents changed, it compiles a new
+ * {@link MaskingPlan} from the connector config and the file, and hands it over to be published. The masking
+ * threads never wait on it. If the file can not be read or compiled, the previous plan is kept.
+ *
+ * The file should be replaced atomically, for eg by writing a temporary file and renaming it, so that the thread
+ * never reads half of it.
+ */
+final class RulesFile {
+    private static final Logger log = LoggerFactory.getLogger(RulesFile.class);
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private final MaskJsonFieldConfig config;
+    private final Path path;
+    private final MaskingPlan plan;
+
+    /**
+     * The contents the last plan was compiled from, or tried to be. Guarded by {@code this}.
+     */
+    private byte[] contents;
+
+    private Consumer<MaskingPlan> publish;
+    private MaskJsonFieldMetrics metrics;
+    private Thread thread;
+    private volatile boolean running = true;
+
+    private RulesFile(MaskJsonFieldConfig config, Path path, byte[] contents) {
+        this.config = config;
+        this.path = path;
+        this.contents = contents;
+        this.plan = compile(config, path, contents);
+    }
+
+    /**
+     * Reads and compiles the {@code RULES_FILE}.
+     *
+     * @return the file, or null if {@code RULES_FILE} is not set.
+     * @throws ConfigException if the file can not be read, or the settings are invalid.
+     */
+    static RulesFile open(MaskJsonFieldConfig config) {
+        String file = config.getString(RULES_FILE);
+        if (file.isEmpty()) {
+            return null;
+        }
+        Path path = Paths.get(file);
+        try {
+            return new RulesFile(config, path, Files.readAllBytes(path));
+        } catch (IOException e) {
+            throw new ConfigException(RULES_FILE, file, "Could not read the file: " + e);
+        }
+    }
+
+    /**
+     * @return the plan compiled when the file was opened.
+     */
+    MaskingPlan plan() {
+        return plan;
+    }
+
+    /**
+     * Starts the thread that checks the file for changes.
+     *
+     * @param publish called with each plan compiled from a changed file, on the thread.
+     */
+    void watch(Consumer<MaskingPlan> publish, MaskJsonFieldMetrics metrics) {
+        this.publish = publish;
+        this.metrics = metrics;
+        long pollNanos = TimeUnit.MILLISECONDS.toNanos(config.getLong(RULES_FILE_POLL_MS));
+        this.thread = new Thread(() -> run(pollNanos), "mask-json-field-rules-" + THREADS.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops the thread.
+     */
+    void close() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run(long pollNanos) {
+        while (running) {
+            LockSupport.parkNanos(pollNanos);
+            if (running) {
+                reload();
+            }
+        }
+    }
+
+    /**
+     * Compiles and publishes the file, if its contents changed since the last check.
+     *
+     * @return true if a new plan was published.
+     */
+    synchronized boolean reload() {
+        byte[] contents;
+        try {
+            contents = Files.readAllBytes(path);
+        } catch (IOException e) {
+            metrics.rulesReloadFailed();
+            log.warn("Could not read {}. The previous rules are kept.", path, e);
+            return false;
+        }
+        if (Arrays.equals(contents, this.contents)) {
+            return false;
+        }
+        // an invalid file is only reported once, not on every check.
+        this.contents = contents;
+
+        MaskingPlan plan;
+        try {
+            plan = compile(config, path, contents);
+        } catch (RuntimeException e) {
+            metrics.rulesReloadFailed();
+            log.warn("Could not compile the rules of {}: {}. The previous rules are kept.", path, e.getMessage());
+            return false;
+        }
+        publish.accept(plan);
+        metrics.rulesReloaded();
+        log.info("Reloaded the rules of {}. fingerprint={}", path, plan.fingerprint);
+        return true;
+    }
+
+    /**
+     * @return the plan of the connector config, with the settings of the file on top.
+     */
+    static MaskingPlan compile(MaskJsonFieldConfig config, Path path, byte[] contents) {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(new String(contents, StandardCharsets.UTF_8)));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ConfigException(RULES_FILE, path.toString(), "Could not parse the file: " + e.getMessage());
+        }
+
+        Map<String, Object> settings = new HashMap<>(config.originals());
+        for (String name : properties.stringPropertyNames()) {
+            if (!RULES_FILE_KEYS.contains(name)) {
+                throw new ConfigException(RULES_FILE, path.toString(), name + " can not be set in the file");
+            }
+            settings.put(name, properties.getProperty(name));
+        }
+        return MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), settings));
+    }
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Uses the parser token offsets to find the span of each matched value, and builds the output by copying
+ * the payload around those spans and inserting a pre-serialized replacement literal.
+ *
+ * Everything outside the matched values, including whitespace and number formatting, is left as is.
+ */
+class SpliceMaskingEngine extends MaskingEngine {
+    // kinds of replacement literal, see literal().
+    private static final int STRING = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int FLOAT = 3;
+    private static final int DOUBLE = 4;
+    private static final int ARRAY = 5;
+    private static final int OBJECT = 6;
+    private static final int NULL = 7;
+    private static final int KINDS = 8;
+
+    /**
+     * Literal of a string span that is masked in part, see {@link PartialMask}.
+     */
+    private static final int PARTIAL = -1;
+
+    private final JsonFactory factory = mapper.getFactory();
+
+    /**
+     * Replacement literals, at {@code rule * KINDS + kind}.
+     */
+    private final String[] literals;
+    private final byte[][] literalBytes;
+
+    SpliceMaskingEngine(MaskingRule[] rules, PathAutomaton automaton, Tokenizer tokenizer, PartialMask partialMask) {
+        super(rules, automaton, tokenizer, partialMask);
+
+        this.literals = new String[rules.length * KINDS];
+        this.literalBytes = new byte[literals.length][];
+        for (int i = 0; i < rules.length; i++) {
+            MaskingRule rule = rules[i];
+            int base = i * KINDS;
+            literals[base + STRING] = rule.stringLiteral;
+            literals[base + INT] = rule.intLiteral;
+            literals[base + LONG] = rule.longLiteral;
+            literals[base + FLOAT] = rule.floatLiteral;
+            literals[base + DOUBLE] = rule.doubleLiteral;
+            literals[base + ARRAY] = "[]";
+            literals[base + OBJECT] = "{}";
+            literals[base + NULL] = "null";
+        }
+        for (int i = 0; i < literals.length; i++) {
+            literalBytes[i] = literals[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    String mask(String payload, MaskingListener listener) throws IOException {
+        long start = now(listener);
+        MaskingBuffers.Spans spans;
+        try (JsonParser parser = factory.createParser(payload)) {
+            spans = match(parser, false, listener);
+        }
+
+        long parsed = now(listener);
+        if (spans.size == 0) {
+            missed(listener, start, parsed);
+            return null;
+        }
+
+        MaskingBuffers.CharOutput output = MaskingBuffers.get().chars();
+        int copied = 0;
+        for (int i = 0; i < spans.size; i++) {
+            output.write(payload, copied, spans.start[i] - copied);
+            if (spans.literal[i] == PARTIAL) {
+                partialMask.mask(payload, spans.start[i], spans.end[i], output);
+            } else {
+                String literal = spans.text[i] != null ? spans.text[i] : literals[spans.literal[i]];
+                output.write(literal, 0, literal.length());
+            }
+            copied = spans.end[i];
+        }
+        output.write(payload, copied, payload.length() - copied);
+        String masked = output.toString();
+        report(listener, start, parsed);
+        return masked;
+    }
+
+    @Override
+    byte[] mask(byte[] payload, MaskingListener listener) throws IOException {
+        long start = now(listener);
+        MaskingBuffers.Spans spans;
+        try (JsonParser parser = factory.createParser(payload)) {
+            spans = match(parser, true, listener);
+        }
+
+        long parsed = now(listener);
+        if (spans.size == 0) {
+            missed(listener, start, parsed);
+            return null;
+        }
+        return splice(payload, spans, start, parsed, listener);
+    }
+
+    /**
+     * Only finds the spans in the buffer. A payload with spans is copied to an array to build the output.
+     */
+    @Override
+    byte[] mask(ByteBuffer payload, MaskingListener listener) throws IOException {
+        long start = now(listener);
+        MaskingBuffers.Spans spans;
+        try (JsonParser parser = factory.createParser(new MaskingBuffers.ByteInput(payload))) {
+            spans = match(parser, true, listener);
+        }
+
+        long parsed = now(listener);
+        if (spans.size == 0) {
+            missed(listener, start, parsed);
+            return null;
+        }
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return splice(bytes, spans, start, parsed, listener);
+    }
+
+    private byte[] splice(byte[] payload, MaskingBuffers.Spans spans, long start, long parsed, MaskingListener listener) {
+        int length = payload.length;
+        for (int i = 0; i < spans.size; i++) {
+            int replacement = spans.literal[i] == PARTIAL
+                    ? partialMask.mask(payload, spans.start[i], spans.end[i], null, 0)
+                    : spans.text[i] != null ? spans.text[i].length() : literalBytes[spans.literal[i]].length;
+            length += replacement - (spans.end[i] - spans.start[i]);
+        }
+
+        byte[] output = new byte[length];
+        int copied = 0;
+        int written = 0;
+        for (int i = 0; i < spans.size; i++) {
+            int unchanged = spans.start[i] - copied;
+            System.arraycopy(payload, copied, output, written, unchanged);
+            written += unchanged;
+
+            if (spans.literal[i] == PARTIAL) {
+                written += partialMask.mask(payload, spans.start[i], spans.end[i], output, written);
+            } else {
+                // tokens are ASCII, so they have as many bytes as chars.
+                byte[] literal = spans.text[i] != null
+                        ? spans.text[i].getBytes(StandardCharsets.US_ASCII)
+                        : literalBytes[spans.literal[i]];
+                System.arraycopy(literal, 0, output, written, literal.length);
+                written += literal.length;
+            }
+
+            copied = spans.end[i];
+        }
+        System.arraycopy(payload, copied, output, written, payload.length - copied);
+        report(listener, start, parsed);
+        return output;
+    }
+
+    /**
+     * Finding the spans is reported as parsing, building the output as serializing.
+     */
+    private static void report(MaskingListener listener, long start, long parsed) {
+        if (listener != MaskingListener.NONE) {
+            listener.parsed(parsed - start);
+            listener.serialized(System.nanoTime() - parsed);
+        }
+    }
+
+    /**
+     * A payload without spans is not copied, so only finding the spans is reported.
+     */
+    private static void missed(MaskingListener listener, long start, long parsed) {
+        if (listener != MaskingListener.NONE) {
+            listener.parsed(parsed - start);
+        }
+    }
+
+    /**
+     * Walks the payload and records the span of every matched value.
+     *
+     * @param bytes true to record byte offsets, false to record char offsets.
+     * @return the spans of this thread's {@link MaskingBuffers}, valid until the next call.
+     */
+    private MaskingBuffers.Spans match(JsonParser parser, boolean bytes, MaskingListener listener) throws IOException {
+        MaskingBuffers buffers = MaskingBuffers.get();
+        MaskingBuffers.Spans spans = buffers.spans;
+        spans.clear();
+
+        PathAutomaton.State[] states = buffers.states;
+        int depth = 0;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.FIELD_NAME) {
+                continue;
+            }
+            if (token.isStructEnd()) {
+                depth--;
+                continue;
+            }
+
+            PathAutomaton.State state = depth == 0 ? automaton.start : states[depth].next(parser, token);
+            if (state.accept < 0) {
+                if (state.isDead()) {
+                    // nothing below can match.
+                    parser.skipChildren();
+                } else if (token.isStructStart()) {
+                    states = buffers.states(++depth);
+                    states[depth] = state;
+                }
+                continue;
+            }
+
+            long start = bytes ? parser.getTokenLocation().getByteOffset() : parser.getTokenLocation().getCharOffset();
+            int kind = literal(parser, token);
+            long end = bytes ? parser.getCurrentLocation().getByteOffset() : parser.getCurrentLocation().getCharOffset();
+            String text = kind == STRING && tokenizer != null ? '"' + tokenizer.token(parser.getText()) + '"' : null;
+
+            int literal = kind == STRING && partialMask != null ? PARTIAL : state.accept * KINDS + kind;
+
+            spans.add((int) start, (int) end, literal, text);
+            listener.matched(state.accept);
+        }
+        return spans;
+    }
+
+    /**
+     * Returns the kind of replacement literal for the current value, and moves the parser to the end of the value.
+     */
+    private int literal(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                // strings are decoded lazily, the end offset is only known once the token is finished.
+                parser.finishToken();
+                return STRING;
+            case VALUE_NUMBER_INT:
+                switch (parser.getNumberType()) {
+                    case LONG:
+                        return LONG;
+                    default:
+                        return INT;
+                }
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberType() == JsonParser.NumberType.FLOAT
+                        ? FLOAT
+                        : DOUBLE;
+            case START_ARRAY:
+                parser.skipChildren();
+                return ARRAY;
+            case START_OBJECT:
+                parser.skipChildren();
+                return OBJECT;
+            default:
+                return NULL;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Copies tokens from a {@link JsonParser} to a {@link JsonGenerator}, replacing the values at the
+ * configured pointers as they go by. No tree is built, so memory use does not grow with the document.
+ */
+class StreamingMaskingEngine extends MaskingEngine {
+    private final JsonFactory factory = mapper.getFactory();
+
+    /**
+     * null if {@code DETECTORS} is empty.
+     */
+    private final PiiDetectors detectors;
+
+    StreamingMaskingEngine(MaskingRule[] rules, PathAutomaton automaton, Tokenizer tokenizer, PartialMask partialMask, PiiDetectors detectors) {
+        super(rules, automaton, tokenizer, partialMask);
+        this.detectors = detectors;
+    }
+
+    @Override
+    String mask(String payload, MaskingListener listener) throws IOException {
+        long start = now(listener);
+        MaskingBuffers.CharOutput writer = MaskingBuffers.get().chars();
+        boolean matched;
+
+        try (JsonParser parser = factory.createParser(payload);
+             JsonGenerator generator = factory.createGenerator(writer)) {
+            matched = copy(parser, generator, listener);
+        }
+
+        long parsed = now(listener);
+        if (!matched) {
+            missed(listener, start, parsed);
+            return null;
+        }
+
+        String masked = writer.toString();
+        report(listener, start, parsed);
+        return masked;
+    }
+
+    @Override
+    byte[] mask(byte[] payload, MaskingListener listener) throws IOException {
+        long start = now(listener);
+        return mask(start, factory.createParser(payload), listener);
+    }
+
+    @Override
+    byte[] mask(ByteBuffer payload, MaskingListener listener) throws IOException {
+        long start = now(listener);
+        return mask(start, factory.createParser(new MaskingBuffers.ByteInput(payload)), listener);
+    }
+
+    private byte[] mask(long start, JsonParser payload, MaskingListener listener) throws IOException {
+        MaskingBuffers.ByteOutput output = MaskingBuffers.get().bytes();
+        boolean matched;
+
+        try (JsonParser parser = payload;
+             JsonGenerator generator = factory.createGenerator(output, JsonEncoding.UTF8)) {
+            matched = copy(parser, generator, listener);
+        }
+
+        long parsed = now(listener);
+        if (!matched) {
+            missed(listener, start, parsed);
+            return null;
+        }
+
+        byte[] masked = output.toByteArray();
+        report(listener, start, parsed);
+        return masked;
+    }
+
+    /**
+     * The single pass over the payload is reported as parsing, copying the output as serializing.
+     */
+    private static void report(MaskingListener listener, long start, long parsed) {
+        if (listener != MaskingListener.NONE) {
+            listener.parsed(parsed - start);
+            listener.serialized(System.nanoTime() - parsed);
+        }
+    }
+
+    /**
+     * The output of a payload without a match is discarded, so the pass over it is only reported as parsing.
+     */
+    private static void missed(MaskingListener listener, long start, long parsed) {
+        if (listener != MaskingListener.NONE) {
+            listener.parsed(parsed - start);
+        }
+    }
+
+    /**
+     * Copies every token from the parser to the generator, replacing the matched values.
+     *
+     * @return true if anything was replaced.
+     */
+    private boolean copy(JsonParser parser, JsonGenerator generator, MaskingListener listener) throws IOException {
+        boolean matched = false;
+
+        MaskingBuffers buffers = MaskingBuffers.get();
+        PathAutomaton.State[] states = buffers.states;
+        int depth = 0;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.FIELD_NAME) {
+                generator.copyCurrentEvent(parser);
+                continue;
+            }
+            if (token.isStructEnd()) {
+                generator.copyCurrentEvent(parser);
+                depth--;
+                continue;
+            }
+
+            PathAutomaton.State state = depth == 0 ? automaton.start : states[depth].next(parser, token);
+            if (state.accept >= 0) {
+                writeReplacement(parser, generator, token, rules[state.accept]);
+                listener.matched(state.accept);
+                matched = true;
+            } else if (state.isDead() && detectors == null) {
+                // nothing below can match.
+                generator.copyCurrentStructure(parser);
+            } else if (token == JsonToken.VALUE_STRING && detectors != null && redact(parser, generator, listener)) {
+                matched = true;
+            } else {
+                generator.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    states = buffers.states(++depth);
+                    states[depth] = state;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Writes the string value with the detected values replaced, if there are any.
+     *
+     * @return true if anything was detected.
+     */
+    private boolean redact(JsonParser parser, JsonGenerator generator, MaskingListener listener) throws IOException {
+        String redacted = detectors.redact(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), listener);
+        if (redacted == null) {
+            return false;
+        }
+        generator.writeString(redacted);
+        return true;
+    }
+
+    private void writeReplacement(
+            JsonParser parser,
+            JsonGenerator generator,
+            JsonToken token,
+            MaskingRule rule
+    ) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                if (tokenizer != null) {
+                    generator.writeString(tokenizer.token(parser.getText()));
+                } else if (partialMask != null) {
+                    // straight from the parser's buffer to the generator.
+                    int length = parser.getTextLength();
+                    char[] masked = MaskingBuffers.get().text(length);
+                    generator.writeString(
+                            masked,
+                            0,
+                            partialMask.mask(parser.getTextCharacters(), parser.getTextOffset(), length, masked, 0)
+                    );
+                } else {
+                    generator.writeString(rule.replacementString);
+                }
+                break;
+            case VALUE_NUMBER_INT:
+                switch (parser.getNumberType()) {
+                    case INT:
+                        generator.writeNumber(rule.replacementInt);
+                        break;
+                    case LONG:
+                        generator.writeNumber(rule.replacementLong);
+                        break;
+                    default:
+                        generator.writeNumber(rule.bigIntegerNode.bigIntegerValue());
+                }
+                break;
+            case VALUE_NUMBER_FLOAT:
+                if (parser.getNumberType() == JsonParser.NumberType.FLOAT) {
+                    generator.writeNumber(rule.replacementFloat);
+                } else {
+                    generator.writeNumber(rule.replacementDouble);
+                }
+                break;
+            case START_ARRAY:
+                parser.skipChildren();
+                generator.writeStartArray();
+                generator.writeEndArray();
+                break;
+            case START_OBJECT:
+                parser.skipChildren();
+                generator.writeStartObject();
+                generator.writeEndObject();
+                break;
+            default:
+                // the tree engine sets a null node for booleans and nulls.
+                generator.writeNull();
+        }
+    }
+}
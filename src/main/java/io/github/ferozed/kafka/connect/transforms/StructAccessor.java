@@ -0,0 +1,154 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+
+import java.util.Arrays;
+
+/**
+ * The {@code CONNECT_FIELD_NAME} path, resolved to {@link Field}s of one struct schema.
+ *
+ * Reading the JSON field through an accessor takes one array lookup per path segment, instead of a field lookup
+ * by name and a type check per segment.
+ */
+final class StructAccessor {
+    final Schema schema;
+
+    /**
+     * Fields of the enclosing structs, outermost first.
+     */
+    private final Field[] parents;
+
+    /**
+     * The STRING or BYTES field that holds the JSON payload.
+     */
+    final Field field;
+
+    private StructAccessor(Schema schema, Field[] parents, Field field) {
+        this.schema = schema;
+        this.parents = parents;
+        this.field = field;
+    }
+
+    /**
+     * @return the accessor, or null if the path does not lead to a STRING or BYTES field of the schema.
+     */
+    static StructAccessor compile(Schema schema, String[] tokens) {
+        Field[] parents = new Field[tokens.length - 1];
+        Schema current = schema;
+        for (int i = 0; i < tokens.length; i++) {
+            if (current.type() != Schema.Type.STRUCT) {
+                return null;
+            }
+            Field field = current.field(tokens[i]);
+            if (field == null) {
+                return null;
+            }
+            if (i == tokens.length - 1) {
+                Schema.Type type = field.schema().type();
+                return type == Schema.Type.STRING || type == Schema.Type.BYTES
+                        ? new StructAccessor(schema, parents, field)
+                        : null;
+            }
+            parents[i] = field;
+            current = field.schema();
+        }
+        return null;
+    }
+
+    boolean isBytes() {
+        return field.schema().type() == Schema.Type.BYTES;
+    }
+
+    /**
+     * @return the struct that holds {@link #field}, or null if one of the enclosing structs is null.
+     */
+    Struct parent(Struct root) {
+        Struct struct = root;
+        for (Field parent : parents) {
+            struct = (Struct) struct.get(parent);
+            if (struct == null) {
+                return null;
+            }
+        }
+        return struct;
+    }
+
+    /**
+     * @return a copy of {@code root} where {@link #field} is {@code value}. Only the structs on the path are copied.
+     * The enclosing structs must not be null.
+     */
+    Struct with(Struct root, Object value) {
+        return with(root, 0, value);
+    }
+
+    private Struct with(Struct struct, int depth, Object value) {
+        Struct copy = ConnectMasker.copyOf(struct);
+        if (depth == parents.length) {
+            copy.put(field, value);
+        } else {
+            copy.put(parents[depth], with((Struct) struct.get(parents[depth]), depth + 1, value));
+        }
+        return copy;
+    }
+
+    /**
+     * Accessors keyed on schema identity. Connectors usually reuse the same {@link Schema} instance for every
+     * record of a schema version, so a hit is a scan of a few references.
+     *
+     * Schemas the path does not resolve in are cached too, as an accessor without a {@link #field}, so records of
+     * such a schema are not compiled again each time.
+     *
+     * At most {@link #MAX_SCHEMAS} accessors are kept. When schemas evolve, the oldest accessor is dropped.
+     */
+    static final class Cache {
+        static final int MAX_SCHEMAS = 16;
+
+        private final String[] tokens;
+        private volatile StructAccessor[] accessors = new StructAccessor[0];
+
+        Cache(String[] tokens) {
+            this.tokens = tokens;
+        }
+
+        /**
+         * @return the accessor for the schema, or null if the path does not lead to a STRING or BYTES field.
+         */
+        StructAccessor get(Schema schema) {
+            StructAccessor[] accessors = this.accessors;
+            for (StructAccessor accessor : accessors) {
+                if (accessor.schema == schema) {
+                    return accessor.field != null ? accessor : null;
+                }
+            }
+
+            StructAccessor accessor = compile(schema, tokens);
+            // racing threads may drop each other's entry, which only costs another compile.
+            int keep = Math.min(accessors.length, MAX_SCHEMAS - 1);
+            StructAccessor[] updated = Arrays.copyOfRange(accessors, accessors.length - keep, accessors.length + 1);
+            updated[keep] = accessor != null ? accessor : new StructAccessor(schema, null, null);
+            this.accessors = updated;
+            return accessor;
+        }
+
+        int size() {
+            return accessors.length;
+        }
+    }
+}
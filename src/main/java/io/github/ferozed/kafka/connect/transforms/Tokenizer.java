@@ -0,0 +1,191 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.config.types.Password;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.ferozed.kafka.connect.transforms.MaskJsonFieldConfig.*;
+
+/**
+ * Replaces string values with a keyed HMAC of the value, for {@code REPLACEMENT_MODE=HMAC}. The same value
+ * always gets the same token, so masked fields can still be joined on.
+ *
+ * Tokens are the unpadded base64url encoding of the MAC, so they never need escaping in JSON.
+ *
+ * Each thread keeps its own {@link Mac}. Recent tokens are kept in a {@link Cache}, since the same values
+ * tend to come back.
+ */
+final class Tokenizer {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * null if {@code TOKEN_CACHE_SIZE} is 0.
+     */
+    private final Cache cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private Tokenizer(String algorithm, byte[] key, int cacheSize) {
+        SecretKeySpec secret = new SecretKeySpec(key, algorithm);
+        // fail in configure() rather than on the first record.
+        newMac(secret);
+        this.macs = ThreadLocal.withInitial(() -> newMac(secret));
+        this.cache = cacheSize > 0 ? new Cache(cacheSize) : null;
+    }
+
+    /**
+     * @return the tokenizer, or null if {@code REPLACEMENT_MODE} is {@code CONSTANT}.
+     */
+    static Tokenizer create(MaskJsonFieldConfig config) {
+        if (!REPLACEMENT_MODE_HMAC.equals(config.getString(REPLACEMENT_MODE))) {
+            return null;
+        }
+        Password key = config.getPassword(HMAC_KEY);
+        if (key == null || key.value().trim().isEmpty()) {
+            throw new ConfigException(HMAC_KEY, "[hidden]", "is required when " + REPLACEMENT_MODE + " is " + REPLACEMENT_MODE_HMAC);
+        }
+        String algorithm = config.getString(HMAC_ALGORITHM);
+        try {
+            return new Tokenizer(algorithm, key.value().getBytes(StandardCharsets.UTF_8), config.getInt(TOKEN_CACHE_SIZE));
+        } catch (IllegalStateException e) {
+            throw new ConfigException(HMAC_ALGORITHM, algorithm, e.getCause().getMessage());
+        } catch (IllegalArgumentException e) {
+            // thrown by SecretKeySpec. The message never quotes the key.
+            throw new ConfigException(HMAC_KEY, "[hidden]", e.getMessage());
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec secret) {
+        try {
+            Mac mac = Mac.getInstance(secret.getAlgorithm());
+            mac.init(secret);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the token of {@code value}.
+     */
+    String token(String value) {
+        if (cache != null) {
+            String token = cache.get(value);
+            if (token != null) {
+                hits.increment();
+                return token;
+            }
+        }
+        misses.increment();
+
+        String token = hash(value);
+        if (cache != null) {
+            cache.put(value, token);
+        }
+        return token;
+    }
+
+    /**
+     * @return the token of {@code value}, without going through the cache.
+     */
+    String hash(String value) {
+        // doFinal() resets the mac for the next call.
+        return ENCODER.encodeToString(macs.get().doFinal(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * A bounded LRU map from value to token, split into shards by hash so that threads rarely contend on
+     * the same lock. Each shard evicts its own least recently used entry, so the bound is approximate.
+     */
+    static final class Cache {
+        static final int SHARDS = 16;
+
+        private final Shard[] shards = new Shard[SHARDS];
+
+        Cache(int size) {
+            int shardSize = Math.max(1, (size + SHARDS - 1) / SHARDS);
+            for (int i = 0; i < SHARDS; i++) {
+                shards[i] = new Shard(shardSize);
+            }
+        }
+
+        private Shard shard(String value) {
+            int hash = value.hashCode();
+            return shards[(hash ^ (hash >>> 16)) & (SHARDS - 1)];
+        }
+
+        String get(String value) {
+            Shard shard = shard(value);
+            synchronized (shard) {
+                return shard.get(value);
+            }
+        }
+
+        void put(String value, String token) {
+            Shard shard = shard(value);
+            synchronized (shard) {
+                shard.put(value, token);
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Shard shard : shards) {
+                synchronized (shard) {
+                    size += shard.size();
+                }
+            }
+            return size;
+        }
+
+        private static final class Shard extends LinkedHashMap<String, String> {
+            private static final long serialVersionUID = 1L;
+
+            private final int capacity;
+
+            Shard(int capacity) {
+                super(16, 0.75f, true);
+                this.capacity = capacity;
+            }
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright © 2023 Feroze Daud (ferozed DOT oss AT gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ferozed.kafka.connect.transforms;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Parses the payload into a {@link JsonNode} tree, replaces the target nodes and serializes the tree again.
+ *
+ * Plain pointers are resolved with {@link JsonNode#at}. If any rule has wildcards, the tree is walked once
+ * with the {@link PathAutomaton} instead.
+ */
+class TreeMaskingEngine extends MaskingEngine {
+    private final JsonFactory factory = mapper.getFactory();
+    private final boolean wildcard;
+
+    TreeMaskingEngine(MaskingRule[] rules, PathAutomaton automaton, Tokenizer tokenizer, PartialMask partialMask) {
+        super(rules, automaton, tokenizer, partialMask);
+
+        boolean wildcard = false;
+        for (MaskingRule rule : rules) {
+            wildcard |= rule.wildcard;
+        }
+        this.wildcard = wildcard;
+    }
+
+    @Override
+    String mask(String payload, MaskingListener listener) throws IOException {
+        long start = now(listener);
+        JsonNode root = mapper.readTree(payload);
+        long parsed = now(listener);
+        JsonNode replacementNode = replaceWithPointers(root, listener);
+        long mutated = now(listener);
+        if (replacementNode == null) {
+            missed(listener, start, parsed, mutated);
+            return null;
+        }
+
+        MaskingBuffers.CharOutput output = MaskingBuffers.get().chars();
+        try (JsonGenerator generator = factory.createGenerator(output)) {
+            mapper.writeTree(generator, replacementNode);
+        }
+        String masked = output.toString();
+
+        report(listener, start, parsed, mutated);
+        return masked;
+    }
+
+    @Override
+    byte[] mask(byte[] payload, MaskingListener listener) throws IOException {
+        long start = now(listener);
+        return mask(start, mapper.readTree(payload), listener);
+    }
+
+    @Override
+    byte[] mask(ByteBuffer payload, MaskingListener listener) throws IOException {
+        long start = now(listener);
+        return mask(start, mapper.readTree(new MaskingBuffers.ByteInput(payload)), listener);
+    }
+
+    private byte[] mask(long start, JsonNode root, MaskingListener listener) throws IOException {
+        long parsed = now(listener);
+        JsonNode replacementNode = replaceWithPointers(root, listener);
+        long mutated = now(listener);
+        if (replacementNode == null) {
+            missed(listener, start, parsed, mutated);
+            return null;
+        }
+
+        MaskingBuffers.ByteOutput output = MaskingBuffers.get().bytes();
+        try (JsonGenerator generator = factory.createGenerator(output, JsonEncoding.UTF8)) {
+            mapper.writeTree(generator, replacementNode);
+        }
+        byte[] masked = output.toByteArray();
+
+        report(listener, start, parsed, mutated);
+        return masked;
+    }
+
+    private static void report(MaskingListener listener, long start, long parsed, long mutated) {
+        if (listener != MaskingListener.NONE) {
+            listener.parsed(parsed - start);
+            listener.mutated(mutated - parsed);
+            listener.serialized(System.nanoTime() - mutated);
+        }
+    }
+
+    /**
+     * A payload without a match is not serialized, so only parsing and walking the tree are reported.
+     */
+    private static void missed(MaskingListener listener, long start, long parsed, long mutated) {
+        if (listener != MaskingListener.NONE) {
+            listener.parsed(parsed - start);
+            listener.mutated(mutated - parsed);
+        }
+    }
+
+    /**
+     * Masks every configured pointer in the same tree.
+     *
+     * @return the masked tree, or null if none of the pointers matched.
+     */
+    private JsonNode replaceWithPointers(
+            JsonNode root,
+            MaskingListener listener
+    ) {
+        // the empty pointer replaces the whole document, which has no parent to set it in.
+        if (automaton.start.accept >= 0 && !root.isMissingNode()) {
+            listener.matched(automaton.start.accept);
+            return replacementFor(root, rules[automaton.start.accept]);
+        }
+
+        boolean matched = false;
+        if (wildcard) {
+            matched = replaceWithAutomaton(root, automaton.start, listener);
+        } else {
+            for (int i = 0; i < rules.length; i++) {
+                if (replaceWithPointer(root, rules[i])) {
+                    listener.matched(i);
+                    matched = true;
+                }
+            }
+        }
+
+        return matched ? root : null;
+    }
+
+    private boolean replaceWithPointer(
+            JsonNode root,
+            MaskingRule rule
+    ) {
+        JsonNode targetNode = root.at(rule.pointer);
+
+        if(targetNode.isMissingNode()) {
+            return false;
+        }
+        JsonNode parentNode = root.at(rule.head);
+
+        JsonNode replacementNode = replacementFor(targetNode, rule);
+
+        if (parentNode.isObject()) {
+            ((ObjectNode)parentNode).set(rule.lastProperty, replacementNode);
+        } else if (parentNode.isArray()) {
+            ((ArrayNode)parentNode).set(rule.lastIndex, replacementNode);
+        }
+
+        return true;
+    }
+
+    /**
+     * Replaces every node below {@code node} whose path is accepted by the automaton.
+     *
+     * @return true if anything was replaced.
+     */
+    private boolean replaceWithAutomaton(JsonNode node, PathAutomaton.State state, MaskingListener listener) {
+        boolean matched = false;
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                PathAutomaton.State child = state.property(field.getKey());
+                if (child.accept >= 0) {
+                    field.setValue(replacementFor(field.getValue(), rules[child.accept]));
+                    listener.matched(child.accept);
+                    matched = true;
+                } else if (!child.isDead()) {
+                    matched |= replaceWithAutomaton(field.getValue(), child, listener);
+                }
+            }
+        } else if (node.isArray()) {
+            ArrayNode array = (ArrayNode) node;
+            for (int i = 0; i < array.size(); i++) {
+                PathAutomaton.State child = state.index(i);
+                if (child.accept >= 0) {
+                    array.set(i, replacementFor(array.get(i), rules[child.accept]));
+                    listener.matched(child.accept);
+                    matched = true;
+                } else if (!child.isDead()) {
+                    matched |= replaceWithAutomaton(array.get(i), child, listener);
+                }
+            }
+        }
+        return matched;
+    }
+
+    private JsonNode replacementFor(JsonNode targetNode, MaskingRule rule) {
+        if (targetNode.isTextual()) {
+            if (tokenizer != null) {
+                return TextNode.valueOf(tokenizer.token(targetNode.textValue()));
+            } else if (partialMask != null) {
+                return TextNode.valueOf(partialMask.mask(targetNode.textValue()));
+            }
+            return rule.textNode;
+        } else if (targetNode.isInt()) {
+            return rule.intNode;
+        } else if (targetNode.isLong()) {
+            return rule.longNode;
+        } else if (targetNode.isBigInteger()) {
+            return rule.bigIntegerNode;
+        } else if (targetNode.isFloat()) {
+            return rule.floatNode;
+        } else if (targetNode.isDouble()) {
+            return rule.doubleNode;
+        } else if (targetNode.isArray()) {
+            return mapper.createArrayNode();
+        } else if (targetNode.isObject()) {
+            return mapper.createObjectNode();
+        }
+        return NullNode.getInstance();
+    }
+}
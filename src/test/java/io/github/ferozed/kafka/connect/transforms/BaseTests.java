@@ -4,8 +4,12 @@ import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
 import org.junit.jupiter.api.Assertions;
 
+import java.util.Map;
+
 public abstract class BaseTests {
 
     protected ObjectMapper mapper = new ObjectMapper();
@@ -24,4 +28,26 @@ public abstract class BaseTests {
             Assertions.assertTrue(Float.valueOf(targetNode.floatValue()).equals(value), String.format("%s in %s = \"%s\" Actual=\"%s\"", path, jsonPayload, value, targetNode.textValue()));
         }
     }
+
+    protected static MaskJsonField<SinkRecord> create(Map<String,Object> configs) {
+        MaskJsonField<SinkRecord> maskJsonField = new MaskJsonField.Value<>();
+        maskJsonField.configure(configs);
+        return maskJsonField;
+    }
+
+    protected static SinkRecord record(Schema schema, Object value) {
+        return new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "key", schema, value, 0);
+    }
+
+    protected static SinkRecord record(String payload) {
+        return record(Schema.STRING_SCHEMA, payload);
+    }
+
+    protected static Object apply(MaskJsonField<SinkRecord> maskJsonField, Schema schema, Object value) {
+        return maskJsonField.apply(record(schema, value)).value();
+    }
+
+    protected static String apply(MaskJsonField<SinkRecord> maskJsonField, String payload) {
+        return (String) apply(maskJsonField, Schema.STRING_SCHEMA, payload);
+    }
 }
@@ -0,0 +1,69 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for MaskJsonField.applyBatch().
+ */
+public class BatchTests extends BaseTests {
+
+    @Test
+    public void testSequentialBatch() {
+        testLib(0, 100);
+    }
+
+    @Test
+    public void testBatchBelowThreshold() {
+        testLib(1000, 100);
+    }
+
+    @Test
+    public void testParallelBatch() {
+        testLib(10, 5000);
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        Assertions.assertTrue(create(1).applyBatch(new ArrayList<>()).isEmpty());
+    }
+
+    private void testLib(int threshold, int size) {
+        MaskJsonField<SinkRecord> maskJsonField = create(threshold);
+
+        List<SinkRecord> records = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            // every third record has nothing to mask.
+            String payload = i % 3 == 0
+                    ? "{\"id\":" + i + "}"
+                    : "{\"id\":" + i + ",\"ssn\":\"111-22-" + i + "\"}";
+            records.add(new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, payload, i));
+        }
+
+        List<SinkRecord> transformed = maskJsonField.applyBatch(records);
+
+        Assertions.assertEquals(size, transformed.size());
+        for (int i = 0; i < size; i++) {
+            String expected = i % 3 == 0
+                    ? "{\"id\":" + i + "}"
+                    : "{\"id\":" + i + ",\"ssn\":\"\"}";
+            Assertions.assertEquals(expected, transformed.get(i).value());
+            Assertions.assertEquals(i, transformed.get(i).kafkaOffset());
+        }
+    }
+
+    private MaskJsonField<SinkRecord> create(int threshold) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE);
+        configs.put(MaskJsonFieldConfig.BATCH_PARALLEL_THRESHOLD, threshold);
+        return create(configs);
+    }
+}
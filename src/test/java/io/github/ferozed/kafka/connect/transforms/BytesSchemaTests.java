@@ -0,0 +1,169 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for raw UTF-8 payloads, for eg from a ByteArrayConverter.
+ */
+public class BytesSchemaTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testBytesValue(String engine) {
+        testLib(
+                engine,
+                false,
+                "/ssn,/name/1",
+                "{\"name\":[\"jön\",\"dœ\"],\"city\":\"東京\",\"ssn\":\"111-22-1212\"}",
+                "{\"name\":[\"jön\",\"\"],\"city\":\"東京\",\"ssn\":\"\"}"
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testBytesKey(String engine) {
+        testLib(
+                engine,
+                true,
+                "/id=xxx",
+                "{\"id\":\"ü-1\",\"n\":2}",
+                "{\"id\":\"xxx\",\"n\":2}"
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testNoMatchReturnsPayload(String engine) {
+        String payload = "{ \"name\": \"jön\" }";
+        testLib(engine, false, "/ssn", payload, payload);
+        testLib(engine, false, "/ssn", "not json", "not json");
+    }
+
+    @Test
+    public void testSpliceKeepsFormatting() {
+        testLib(
+                MaskJsonFieldConfig.MASKING_ENGINE_SPLICE,
+                false,
+                "/ssn",
+                "{ \"näme\" : \"€\",\n  \"ssn\" : 1.50e2 }",
+                "{ \"näme\" : \"€\",\n  \"ssn\" : 0.0 }"
+        );
+    }
+
+    @Test
+    public void testBytesFieldInStruct() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.CONNECT_FIELD_NAME, "data");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+
+        MaskJsonField<SinkRecord> maskJsonField = new MaskJsonField.Value<>();
+        maskJsonField.configure(configs);
+
+        Schema schema = SchemaBuilder.struct()
+                .field("id", Schema.INT32_SCHEMA)
+                .field("data", Schema.OPTIONAL_BYTES_SCHEMA)
+                .build();
+        Struct value = new Struct(schema)
+                .put("id", 1)
+                .put("data", "{\"ssn\":\"111\"}".getBytes(StandardCharsets.UTF_8));
+
+        SinkRecord sinkRecord = new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "key", schema, value, 0);
+
+        Struct transformed = (Struct) maskJsonField.apply(sinkRecord).value();
+        Assertions.assertEquals("{\"ssn\":\"\"}", new String(transformed.getBytes("data"), StandardCharsets.UTF_8));
+        Assertions.assertEquals(1, transformed.getInt32("id"));
+    }
+
+    @Test
+    public void testByteBufferFieldInStruct() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.CONNECT_FIELD_NAME, "data");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+
+        MaskJsonField<SinkRecord> maskJsonField = new MaskJsonField.Value<>();
+        maskJsonField.configure(configs);
+
+        Schema schema = SchemaBuilder.struct()
+                .field("data", Schema.OPTIONAL_BYTES_SCHEMA)
+                .build();
+
+        // the payload sits in the middle of a larger array.
+        byte[] framed = "xx{\"ssn\":\"111\"}yy".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer sliced = ((ByteBuffer) ByteBuffer.wrap(framed).position(2).limit(framed.length - 2)).slice();
+        for (ByteBuffer payload : new ByteBuffer[]{ByteBuffer.wrap(framed, 2, framed.length - 4), sliced, sliced.asReadOnlyBuffer()}) {
+            Struct value = new Struct(schema).put("data", payload);
+            SinkRecord sinkRecord = new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "key", schema, value, 0);
+
+            Struct transformed = (Struct) maskJsonField.apply(sinkRecord).value();
+            Assertions.assertEquals("{\"ssn\":\"\"}", new String(transformed.getBytes("data"), StandardCharsets.UTF_8));
+            Assertions.assertEquals("{\"ssn\":\"111\"}", StandardCharsets.UTF_8.decode(payload.duplicate()).toString());
+        }
+
+        byte[] unmatched = "xx{\"id\":1}yy".getBytes(StandardCharsets.UTF_8);
+        Struct value = new Struct(schema).put("data", ByteBuffer.wrap(unmatched, 2, unmatched.length - 4));
+        SinkRecord sinkRecord = new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "key", schema, value, 0);
+        Assertions.assertSame(sinkRecord, maskJsonField.apply(sinkRecord));
+    }
+
+    @Test
+    public void testPrefilter() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.PREFILTER_ENABLED, true);
+
+        MaskJsonField<SinkRecord> maskJsonField = new MaskJsonField.Value<>();
+        maskJsonField.configure(configs);
+
+        byte[] payload = "{\"näme\":\"ss\",\"ss\":\"n\"}".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertSame(payload, apply(maskJsonField, false, payload));
+        Assertions.assertEquals(1, maskJsonField.getPrefilterSkips());
+
+        payload = "{\"näme\":\"x\",\"ssn\":\"111\"}".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertEquals(
+                "{\"näme\":\"x\",\"ssn\":\"\"}",
+                new String(apply(maskJsonField, false, payload), StandardCharsets.UTF_8)
+        );
+        Assertions.assertEquals(1, maskJsonField.getPrefilterHits());
+    }
+
+    private void testLib(String engine, boolean isKey, String paths, String payload, String expectedJson) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, paths);
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+
+        MaskJsonField<SinkRecord> maskJsonField = isKey ? new MaskJsonField.Key<>() : new MaskJsonField.Value<>();
+        maskJsonField.configure(configs);
+
+        byte[] transformed = apply(maskJsonField, isKey, payload.getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals(expectedJson, new String(transformed, StandardCharsets.UTF_8));
+    }
+
+    private byte[] apply(MaskJsonField<SinkRecord> maskJsonField, boolean isKey, byte[] payload) {
+        SinkRecord sinkRecord = new SinkRecord(
+                "topic",
+                0,
+                isKey ? Schema.BYTES_SCHEMA : Schema.STRING_SCHEMA,
+                isKey ? payload : "key",
+                isKey ? Schema.STRING_SCHEMA : Schema.BYTES_SCHEMA,
+                isKey ? "value" : payload,
+                0
+        );
+
+        ConnectRecord transformedRecord = maskJsonField.apply(sinkRecord);
+        Assertions.assertEquals(Schema.BYTES_SCHEMA, isKey ? transformedRecord.keySchema() : transformedRecord.valueSchema());
+        return (byte[]) (isKey ? transformedRecord.key() : transformedRecord.value());
+    }
+}
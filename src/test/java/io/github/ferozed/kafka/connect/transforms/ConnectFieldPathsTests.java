@@ -0,0 +1,146 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests for CONNECT_FIELD_PATHS.
+ */
+public class ConnectFieldPathsTests extends BaseTests {
+    private static final Schema PRIVATE_INFO_SCHEMA = SchemaBuilder.struct()
+            .field("data", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("raw", Schema.OPTIONAL_BYTES_SCHEMA)
+            .build();
+
+    private static final Schema SCHEMA = SchemaBuilder.struct()
+            .field("id", Schema.INT32_SCHEMA)
+            .field("private_info", PRIVATE_INFO_SCHEMA)
+            .field("payload", Schema.OPTIONAL_STRING_SCHEMA)
+            .build();
+
+    private static final String PATHS = "private_info.data:/ssn, private_info.raw:/card=xxx, payload:/user/email, payload:/user/dob";
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testStruct(String engine) {
+        MaskJsonField<SinkRecord> maskJsonField = create(PATHS, engine);
+
+        Struct privateInfo = new Struct(PRIVATE_INFO_SCHEMA)
+                .put("data", "{\"ssn\":\"111-22-1212\",\"name\":\"jon\"}")
+                .put("raw", "{\"card\":\"4111\"}".getBytes(StandardCharsets.UTF_8));
+        Struct value = new Struct(SCHEMA)
+                .put("id", 1)
+                .put("private_info", privateInfo)
+                .put("payload", "{\"user\":{\"email\":\"a@b.c\",\"dob\":\"2000-01-01\"}}");
+
+        Struct transformed = (Struct) apply(maskJsonField, SCHEMA, value);
+        Assertions.assertEquals(1, transformed.getInt32("id"));
+        Assertions.assertEquals("{\"ssn\":\"\",\"name\":\"jon\"}", transformed.getStruct("private_info").getString("data"));
+        Assertions.assertEquals("{\"card\":\"xxx\"}", new String(transformed.getStruct("private_info").getBytes("raw"), StandardCharsets.UTF_8));
+        Assertions.assertEquals("{\"user\":{\"email\":\"\",\"dob\":\"\"}}", transformed.getString("payload"));
+
+        // the input is not modified.
+        Assertions.assertEquals("{\"ssn\":\"111-22-1212\",\"name\":\"jon\"}", privateInfo.getString("data"));
+
+        Assertions.assertEquals(3, maskJsonField.metrics().getMasked());
+        Assertions.assertArrayEquals(new long[]{1, 1, 1, 1}, maskJsonField.metrics().getRuleHits());
+    }
+
+    @Test
+    public void testPartialStruct() {
+        MaskJsonField<SinkRecord> maskJsonField = create(PATHS, MaskJsonFieldConfig.MASKING_ENGINE_TREE);
+
+        Struct privateInfo = new Struct(PRIVATE_INFO_SCHEMA).put("data", "{\"name\":\"jon\"}");
+        Struct value = new Struct(SCHEMA)
+                .put("id", 1)
+                .put("private_info", privateInfo)
+                .put("payload", "{\"user\":{\"email\":\"a@b.c\"}}");
+
+        Struct transformed = (Struct) apply(maskJsonField, SCHEMA, value);
+        Assertions.assertSame(privateInfo, transformed.getStruct("private_info"));
+        Assertions.assertEquals("{\"user\":{\"email\":\"\"}}", transformed.getString("payload"));
+
+        Struct unchanged = new Struct(SCHEMA).put("id", 2).put("private_info", privateInfo);
+        Assertions.assertSame(unchanged, apply(maskJsonField, SCHEMA, unchanged));
+    }
+
+    @Test
+    public void testMap() {
+        MaskJsonField<SinkRecord> maskJsonField = create(PATHS, MaskJsonFieldConfig.MASKING_ENGINE_TREE);
+
+        Map<String, Object> privateInfo = new LinkedHashMap<>();
+        privateInfo.put("data", "{\"ssn\":\"111-22-1212\"}");
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("id", 1);
+        value.put("private_info", privateInfo);
+        value.put("payload", "{\"user\":{\"dob\":\"2000-01-01\"}}");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> transformed = (Map<String, Object>) apply(maskJsonField, null, value);
+        Assertions.assertEquals("{\"ssn\":\"\"}", ((Map<?, ?>) transformed.get("private_info")).get("data"));
+        Assertions.assertEquals("{\"user\":{\"dob\":\"\"}}", transformed.get("payload"));
+        Assertions.assertEquals("{\"ssn\":\"111-22-1212\"}", privateInfo.get("data"));
+    }
+
+    @Test
+    public void testOffsetByteBuffer() {
+        MaskJsonField<SinkRecord> maskJsonField = create(PATHS, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING);
+
+        // the payload sits in the middle of a larger array.
+        byte[] framed = "xx{\"card\":\"4111\"}yy".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer raw = ByteBuffer.wrap(framed, 2, framed.length - 4);
+        Struct value = new Struct(SCHEMA)
+                .put("id", 1)
+                .put("private_info", new Struct(PRIVATE_INFO_SCHEMA).put("raw", raw));
+
+        Struct transformed = (Struct) apply(maskJsonField, SCHEMA, value);
+        Assertions.assertEquals("{\"card\":\"xxx\"}", new String(transformed.getStruct("private_info").getBytes("raw"), StandardCharsets.UTF_8));
+        Assertions.assertEquals(2, raw.position());
+
+        byte[] unmatched = "xx{\"id\":1}yy".getBytes(StandardCharsets.UTF_8);
+        Struct unchanged = new Struct(SCHEMA)
+                .put("id", 2)
+                .put("private_info", new Struct(PRIVATE_INFO_SCHEMA).put("raw", ByteBuffer.wrap(unmatched, 2, unmatched.length - 4).slice()));
+        Assertions.assertSame(unchanged, apply(maskJsonField, SCHEMA, unchanged));
+    }
+
+    @Test
+    public void testStringPayloadIsNotMasked() {
+        MaskJsonField<SinkRecord> maskJsonField = create(PATHS, MaskJsonFieldConfig.MASKING_ENGINE_TREE);
+
+        String payload = "{\"ssn\":\"111-22-1212\"}";
+        Assertions.assertSame(payload, apply(maskJsonField, Schema.STRING_SCHEMA, payload));
+    }
+
+    @Test
+    public void testInvalidConfig() {
+        Assertions.assertThrows(ConfigException.class, () -> create("/ssn", MaskJsonFieldConfig.MASKING_ENGINE_TREE));
+        Assertions.assertThrows(ConfigException.class, () -> create("a:/ssn,a.b:/ssn", MaskJsonFieldConfig.MASKING_ENGINE_TREE));
+        Assertions.assertThrows(ConfigException.class, () -> create("a.b:/ssn,a:/ssn", MaskJsonFieldConfig.MASKING_ENGINE_TREE));
+
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.CONNECT_FIELD_PATHS, "a:/ssn");
+        configs.put(MaskJsonFieldConfig.MASKING_TARGET, MaskJsonFieldConfig.MASKING_TARGET_CONNECT);
+        Assertions.assertThrows(ConfigException.class, () -> new MaskJsonField.Value<SinkRecord>().configure(configs));
+    }
+
+    private MaskJsonField<SinkRecord> create(String paths, String engine) {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.CONNECT_FIELD_PATHS, paths);
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+        return create(configs);
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for MASKING_TARGET=CONNECT.
+ */
+public class ConnectTargetTests extends BaseTests {
+
+    private static final Schema ADDRESS_SCHEMA = SchemaBuilder.struct()
+            .field("city", Schema.STRING_SCHEMA)
+            .field("zip", Schema.INT32_SCHEMA)
+            .build();
+
+    private static final Schema USER_SCHEMA = SchemaBuilder.struct()
+            .field("name", Schema.STRING_SCHEMA)
+            .field("ssn", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("age", Schema.INT64_SCHEMA)
+            .field("address", ADDRESS_SCHEMA)
+            .field("phones", SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+            .field("active", Schema.OPTIONAL_BOOLEAN_SCHEMA)
+            .build();
+
+    private static Struct user() {
+        return new Struct(USER_SCHEMA)
+                .put("name", "jon")
+                .put("ssn", "111-22-1212")
+                .put("age", 42L)
+                .put("address", new Struct(ADDRESS_SCHEMA).put("city", "Seattle").put("zip", 98101))
+                .put("phones", Arrays.asList("555-1234", "555-9876"))
+                .put("active", true);
+    }
+
+    @Test
+    public void testStruct() {
+        MaskJsonField<SinkRecord> maskJsonField = create("/ssn,/address/zip,/phones/1,/age=7,/active");
+
+        Struct input = user();
+        Struct masked = (Struct) apply(maskJsonField, USER_SCHEMA, input);
+
+        Assertions.assertEquals("", masked.getString("ssn"));
+        Assertions.assertEquals(0, masked.getStruct("address").getInt32("zip"));
+        Assertions.assertEquals("Seattle", masked.getStruct("address").getString("city"));
+        Assertions.assertEquals(Arrays.asList("555-1234", ""), masked.getArray("phones"));
+        Assertions.assertEquals(7L, masked.getInt64("age"));
+        Assertions.assertNull(masked.getBoolean("active"));
+        Assertions.assertEquals("jon", masked.getString("name"));
+        masked.validate();
+
+        // the input is not modified.
+        Assertions.assertEquals(user(), input);
+    }
+
+    @Test
+    public void testStructCopiesOnlyTheAffectedPath() {
+        Schema schema = SchemaBuilder.struct()
+                .field("a", ADDRESS_SCHEMA)
+                .field("b", ADDRESS_SCHEMA)
+                .build();
+        Struct input = new Struct(schema)
+                .put("a", new Struct(ADDRESS_SCHEMA).put("city", "x").put("zip", 1))
+                .put("b", new Struct(ADDRESS_SCHEMA).put("city", "y").put("zip", 2));
+
+        Struct masked = (Struct) apply(create("/a/city"), schema, input);
+        Assertions.assertNotSame(input, masked);
+        Assertions.assertNotSame(input.getStruct("a"), masked.getStruct("a"));
+        Assertions.assertSame(input.getStruct("b"), masked.getStruct("b"));
+        Assertions.assertEquals("", masked.getStruct("a").getString("city"));
+    }
+
+    @Test
+    public void testWildcards() {
+        Schema schema = SchemaBuilder.struct()
+                .field("users", SchemaBuilder.array(USER_SCHEMA).build())
+                .build();
+        Struct input = new Struct(schema).put("users", Arrays.asList(user(), user()));
+
+        Struct masked = (Struct) apply(create("/users/*/ssn,**/city"), schema, input);
+        for (Struct user : masked.<Struct>getArray("users")) {
+            Assertions.assertEquals("", user.getString("ssn"));
+            Assertions.assertEquals("", user.getStruct("address").getString("city"));
+            Assertions.assertEquals(98101, user.getStruct("address").getInt32("zip"));
+        }
+    }
+
+    @Test
+    public void testNoMatchReturnsInput() {
+        MaskJsonField<SinkRecord> maskJsonField = create("/missing");
+
+        Struct input = user();
+        Assertions.assertSame(input, apply(maskJsonField, USER_SCHEMA, input));
+        Assertions.assertEquals(1, maskJsonField.metrics().getNotMatched());
+    }
+
+    @Test
+    public void testRequiredStructField() {
+        Assertions.assertThrows(DataException.class, () -> apply(create("/address"), USER_SCHEMA, user()));
+    }
+
+    @Test
+    public void testMap() {
+        MaskJsonField<SinkRecord> maskJsonField = create("/user/ssn,/cards/0,/user/address");
+
+        Map<String,Object> user = new HashMap<>();
+        user.put("name", "jon");
+        user.put("ssn", "111-22-1212");
+        user.put("address", Collections.singletonMap("city", "Seattle"));
+        Map<String,Object> input = new HashMap<>();
+        input.put("user", user);
+        input.put("cards", Arrays.asList(4111L, 5500L));
+        input.put("id", 1);
+
+        @SuppressWarnings("unchecked")
+        Map<String,Object> masked = (Map<String,Object>) apply(maskJsonField, null, input);
+        @SuppressWarnings("unchecked")
+        Map<String,Object> maskedUser = (Map<String,Object>) masked.get("user");
+
+        Assertions.assertEquals("", maskedUser.get("ssn"));
+        Assertions.assertEquals("jon", maskedUser.get("name"));
+        Assertions.assertEquals(Collections.emptyMap(), maskedUser.get("address"));
+        Assertions.assertEquals(Arrays.asList(0L, 5500L), masked.get("cards"));
+        Assertions.assertEquals(1, masked.get("id"));
+
+        Assertions.assertEquals("111-22-1212", user.get("ssn"));
+        Assertions.assertEquals(Arrays.asList(4111L, 5500L), input.get("cards"));
+        Assertions.assertEquals(1, maskJsonField.metrics().getMasked());
+    }
+
+    @Test
+    public void testKey() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.MASKING_TARGET, MaskJsonFieldConfig.MASKING_TARGET_CONNECT);
+
+        MaskJsonField<SinkRecord> maskJsonField = new MaskJsonField.Key<>();
+        maskJsonField.configure(configs);
+
+        SinkRecord record = new SinkRecord("topic", 0, USER_SCHEMA, user(), null, null, 0);
+        Struct masked = (Struct) maskJsonField.apply(record).key();
+        Assertions.assertEquals("", masked.getString("ssn"));
+    }
+
+    private MaskJsonField<SinkRecord> create(String paths) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, paths);
+        configs.put(MaskJsonFieldConfig.MASKING_TARGET, MaskJsonFieldConfig.MASKING_TARGET_CONNECT);
+        return create(configs);
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for FAILURE_POLICY, and for records that are not modified.
+ */
+public class FailurePolicyTests extends BaseTests {
+
+    private static final String INVALID = "{\"ssn\": \"111-22-1212\"";
+
+    @Test
+    public void testPassThrough() {
+        MaskJsonField<SinkRecord> maskJsonField = create(MaskJsonFieldConfig.FAILURE_POLICY_PASS_THROUGH);
+
+        SinkRecord record = record(INVALID);
+        Assertions.assertSame(record, maskJsonField.apply(record));
+        Assertions.assertEquals(1, maskJsonField.metrics().getParseFailed());
+    }
+
+    @Test
+    public void testFail() {
+        MaskJsonField<SinkRecord> maskJsonField = create(MaskJsonFieldConfig.FAILURE_POLICY_FAIL);
+
+        DataException e = Assertions.assertThrows(DataException.class, () -> maskJsonField.apply(record(INVALID)));
+        Assertions.assertFalse(e.getMessage().contains("111-22-1212"), e.getMessage());
+        Assertions.assertEquals(1, maskJsonField.metrics().getParseFailed());
+    }
+
+    @Test
+    public void testTagHeader() {
+        MaskJsonField<SinkRecord> maskJsonField = create(MaskJsonFieldConfig.FAILURE_POLICY_TAG_HEADER);
+
+        SinkRecord record = record(INVALID);
+        SinkRecord tagged = maskJsonField.apply(record);
+        Assertions.assertSame(INVALID, tagged.value());
+        Header header = tagged.headers().lastWithName("mask.json.field.error");
+        Assertions.assertNotNull(header);
+        Assertions.assertTrue(header.value().toString().startsWith("Could not parse the JSON payload"), header.value().toString());
+        Assertions.assertFalse(header.value().toString().contains("111-22-1212"));
+        // the input headers are not modified.
+        Assertions.assertTrue(record.headers().isEmpty());
+
+        // a miss is not a failure.
+        record = record("{\"name\":\"jon\"}");
+        Assertions.assertSame(record, maskJsonField.apply(record));
+    }
+
+    @Test
+    public void testUnchangedRecordIsReturnedAsIs() {
+        MaskJsonField<SinkRecord> maskJsonField = create(MaskJsonFieldConfig.FAILURE_POLICY_PASS_THROUGH);
+
+        SinkRecord record = record("{\"name\":\"jon\"}");
+        Assertions.assertSame(record, maskJsonField.apply(record));
+        Assertions.assertEquals(1, maskJsonField.metrics().getNotMatched());
+
+        record = record("{\"ssn\":\"111\"}");
+        Assertions.assertEquals("{\"ssn\":\"\"}", maskJsonField.apply(record).value());
+    }
+
+    @Test
+    public void testStructIsNotModified() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.CONNECT_FIELD_NAME, "payload.data");
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        Schema payloadSchema = SchemaBuilder.struct().field("data", Schema.STRING_SCHEMA).build();
+        Schema schema = SchemaBuilder.struct()
+                .field("id", Schema.INT32_SCHEMA)
+                .field("payload", payloadSchema)
+                .build();
+        Struct input = new Struct(schema)
+                .put("id", 1)
+                .put("payload", new Struct(payloadSchema).put("data", "{\"ssn\":\"111\"}"));
+
+        SinkRecord record = record(schema, input);
+        Struct masked = (Struct) maskJsonField.apply(record).value();
+        Assertions.assertEquals("{\"ssn\":\"\"}", masked.getStruct("payload").getString("data"));
+        Assertions.assertEquals(1, masked.getInt32("id"));
+        Assertions.assertEquals("{\"ssn\":\"111\"}", input.getStruct("payload").getString("data"));
+
+        input.getStruct("payload").put("data", "{\"name\":\"jon\"}");
+        record = record(schema, input);
+        Assertions.assertSame(record, maskJsonField.apply(record));
+    }
+
+    @Test
+    public void testUnresolvedStructField() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.CONNECT_FIELD_NAME, "payload.data");
+        configs.put(MaskJsonFieldConfig.FAILURE_POLICY, MaskJsonFieldConfig.FAILURE_POLICY_TAG_HEADER);
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        // data is an INT32, not a JSON payload.
+        Schema payloadSchema = SchemaBuilder.struct().field("data", Schema.INT32_SCHEMA).build();
+        Schema schema = SchemaBuilder.struct().field("payload", payloadSchema).build();
+        Struct input = new Struct(schema).put("payload", new Struct(payloadSchema).put("data", 1));
+
+        SinkRecord record = record(schema, input);
+        SinkRecord tagged = maskJsonField.apply(record);
+        Assertions.assertSame(input, tagged.value());
+        Assertions.assertEquals(1, input.getStruct("payload").getInt32("data"));
+        Header header = tagged.headers().lastWithName("mask.json.field.error");
+        Assertions.assertTrue(header.value().toString().contains("payload.data"), header.value().toString());
+
+        Schema missing = SchemaBuilder.struct().field("id", Schema.INT32_SCHEMA).build();
+        record = record(missing, new Struct(missing).put("id", 1));
+        Assertions.assertNotNull(maskJsonField.apply(record).headers().lastWithName("mask.json.field.error"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMapIsNotModified() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.CONNECT_FIELD_NAME, "payload.data");
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        Map<String,Object> payload = new HashMap<>();
+        payload.put("data", "{\"ssn\":\"111\"}");
+        Map<String,Object> input = new HashMap<>();
+        input.put("payload", payload);
+        input.put("id", 1);
+
+        Map<String,Object> masked = (Map<String,Object>) maskJsonField.apply(record(null, input)).value();
+        Assertions.assertEquals("{\"ssn\":\"\"}", ((Map<String,Object>) masked.get("payload")).get("data"));
+        Assertions.assertEquals(1, masked.get("id"));
+        Assertions.assertEquals("{\"ssn\":\"111\"}", payload.get("data"));
+    }
+
+    private MaskJsonField<SinkRecord> create(String policy) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.FAILURE_POLICY, policy);
+        return create(configs);
+    }
+}
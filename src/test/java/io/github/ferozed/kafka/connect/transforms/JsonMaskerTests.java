@@ -0,0 +1,182 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the standalone JsonMasker.
+ */
+public class JsonMaskerTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testMask(String engine) {
+        JsonMasker masker = JsonMasker.builder()
+                .paths("/ssn", "/cards/*/number=XXXX")
+                .maskKeys("password")
+                .engine(engine)
+                .build();
+
+        Assertions.assertEquals(
+                "{\"ssn\":\"\",\"cards\":[{\"number\":\"XXXX\"}],\"user\":{\"password\":\"\"}}",
+                masker.mask("{\"ssn\":\"111\",\"cards\":[{\"number\":\"4111\"}],\"user\":{\"password\":\"pw\"}}")
+        );
+
+        String payload = "{\"name\":\"jon\"}";
+        Assertions.assertSame(payload, masker.mask(payload));
+        Assertions.assertEquals(1, masker.metrics().getMasked());
+        Assertions.assertEquals(1, masker.metrics().getNotMatched());
+    }
+
+    @Test
+    public void testBytes() {
+        JsonMasker masker = JsonMasker.builder().paths("/ssn").replacement("***").build();
+
+        byte[] payload = "{\"näme\":\"jön\",\"ssn\":\"111\"}".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertEquals("{\"näme\":\"jön\",\"ssn\":\"***\"}", new String(masker.mask(payload), StandardCharsets.UTF_8));
+
+        byte[] unmatched = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertSame(unmatched, masker.mask(unmatched));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testByteBuffer(String engine) {
+        JsonMasker masker = JsonMasker.builder().paths("/ssn").engine(engine).build();
+
+        byte[] framed = "xx{\"ssn\":\"111\"}yy".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(framed, 2, framed.length - 4);
+        ByteBuffer masked = masker.mask(buffer);
+        Assertions.assertEquals("{\"ssn\":\"\"}", StandardCharsets.UTF_8.decode(masked).toString());
+        Assertions.assertEquals(2, buffer.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(16);
+        direct.put("{\"id\":1}".getBytes(StandardCharsets.UTF_8)).flip();
+        Assertions.assertSame(direct, masker.mask(direct));
+
+        // a slice in the middle of a direct buffer, like a line of a memory-mapped file.
+        ByteBuffer lines = ByteBuffer.allocateDirect(64);
+        lines.put("{\"id\":1}\n{\"ssn\":\"111\",\"id\":2}\n".getBytes(StandardCharsets.UTF_8)).flip();
+        lines.position(9).limit(lines.limit() - 1);
+        ByteBuffer line = lines.slice();
+        Assertions.assertEquals("{\"ssn\":\"\",\"id\":2}", StandardCharsets.UTF_8.decode(masker.mask(line)).toString());
+        Assertions.assertEquals(0, line.position());
+    }
+
+    @Test
+    public void testByteBufferPrefilter() {
+        JsonMasker masker = JsonMasker.builder().paths("/ssn").set(MaskJsonFieldConfig.PREFILTER_ENABLED, true).build();
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(32);
+        direct.put("xx{\"id\":1,\"ssn\":\"1\"}".getBytes(StandardCharsets.UTF_8)).flip().position(2);
+        Assertions.assertEquals("{\"id\":1,\"ssn\":\"\"}", StandardCharsets.UTF_8.decode(masker.mask(direct)).toString());
+
+        // the needle is only before the position.
+        direct.clear();
+        direct.put("\"ssn\"{\"id\":1}".getBytes(StandardCharsets.UTF_8)).flip().position(5);
+        Assertions.assertSame(direct, masker.mask(direct));
+        Assertions.assertEquals(1, masker.metrics().getPrefilterSkips());
+    }
+
+    @Test
+    public void testFailurePolicy() {
+        JsonMasker failing = JsonMasker.builder()
+                .paths("/ssn")
+                .set(MaskJsonFieldConfig.FAILURE_POLICY, MaskJsonFieldConfig.FAILURE_POLICY_FAIL)
+                .build();
+        JsonMaskingException e = Assertions.assertThrows(JsonMaskingException.class, () -> failing.mask("{\"ssn\":\"111-22"));
+        Assertions.assertFalse(e.getMessage().contains("111-22"));
+        Assertions.assertEquals(1, failing.metrics().getParseFailed());
+
+        JsonMasker passing = JsonMasker.builder().paths("/ssn").build();
+        Assertions.assertEquals("not json", passing.mask("not json"));
+    }
+
+    @Test
+    public void testRejectsConnectSettings() {
+        Assertions.assertThrows(ConfigException.class, () -> JsonMasker.builder()
+                .paths("/ssn")
+                .set(MaskJsonFieldConfig.MASKING_TARGET, MaskJsonFieldConfig.MASKING_TARGET_CONNECT)
+                .build());
+        Assertions.assertThrows(ConfigException.class, () -> JsonMasker.builder()
+                .set(MaskJsonFieldConfig.CONNECT_FIELD_PATHS, "data:/ssn")
+                .build());
+        Assertions.assertThrows(ConfigException.class, () -> JsonMasker.builder().paths("ssn").build());
+    }
+
+    @Test
+    public void testSameOutputAsTransform() {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/a/*/b,**/c=x");
+        configs.put(MaskJsonFieldConfig.DETECTORS, "EMAIL");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_MODE, MaskJsonFieldConfig.REPLACEMENT_MODE_HMAC);
+        configs.put(MaskJsonFieldConfig.HMAC_KEY, "secret");
+
+        MaskJsonField<SinkRecord> maskJsonField = new MaskJsonField.Value<>();
+        maskJsonField.configure(configs);
+        JsonMasker masker = JsonMasker.builder().configs(configs).build();
+
+        String payload = "{\"a\":[{\"b\":\"1\"},{\"b\":\"2\"}],\"d\":{\"c\":\"3\"},\"note\":\"mail jon@example.com\"}";
+        SinkRecord record = new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, payload, 0);
+        Assertions.assertEquals(maskJsonField.apply(record).value(), masker.mask(payload));
+    }
+
+    @Test
+    public void testSharedAcrossThreads() {
+        JsonMasker masker = JsonMasker.builder().paths("/ssn").build();
+        IntStream.range(0, 10000).parallel().forEach(i -> Assertions.assertEquals(
+                "{\"id\":" + i + ",\"ssn\":\"\"}",
+                masker.mask("{\"id\":" + i + ",\"ssn\":\"" + i + "\"}")
+        ));
+        Assertions.assertEquals(10000, masker.metrics().getMasked());
+    }
+
+    /**
+     * connect-api is provided by the Connect worker, so applications that use the masker on its own do not have it.
+     */
+    @Test
+    public void testWithoutConnectApi() throws Exception {
+        // the masker, jackson, kafka-clients and the runtime dependencies of this artifact.
+        URL[] classpath = Stream.of(
+                JsonMasker.class,
+                com.fasterxml.jackson.databind.ObjectMapper.class,
+                com.fasterxml.jackson.core.JsonParser.class,
+                com.fasterxml.jackson.annotation.JsonAutoDetect.class,
+                org.apache.kafka.common.config.AbstractConfig.class,
+                org.slf4j.Logger.class,
+                com.github.jcustenborder.kafka.connect.utils.config.ConfigKeyBuilder.class,
+                com.google.common.base.Preconditions.class
+        ).map(type -> type.getProtectionDomain().getCodeSource().getLocation()).distinct().toArray(URL[]::new);
+
+        try (URLClassLoader loader = new URLClassLoader(classpath, null)) {
+            Assertions.assertThrows(ClassNotFoundException.class, () -> loader.loadClass(Schema.class.getName()));
+
+            Class<?> builderClass = loader.loadClass(JsonMasker.Builder.class.getName());
+            Object builder = loader.loadClass(JsonMasker.class.getName()).getMethod("builder").invoke(null);
+            builder = builderClass.getMethod("paths", String[].class).invoke(builder, (Object) new String[] {"/ssn"});
+            Object masker = builderClass.getMethod("build").invoke(builder);
+
+            Assertions.assertEquals(
+                    "{\"ssn\":\"\"}",
+                    masker.getClass().getMethod("mask", String.class).invoke(masker, "{\"ssn\":\"111\"}")
+            );
+            byte[] masked = (byte[]) masker.getClass().getMethod("mask", byte[].class)
+                    .invoke(masker, (Object) "{\"ssn\":\"111\"}".getBytes(StandardCharsets.UTF_8));
+            Assertions.assertEquals("{\"ssn\":\"\"}", new String(masked, StandardCharsets.UTF_8));
+        }
+    }
+}
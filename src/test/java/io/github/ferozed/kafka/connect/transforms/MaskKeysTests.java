@@ -0,0 +1,98 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests for MASK_KEYS, and the {@link NameTable} that backs the automaton transitions.
+ */
+public class MaskKeysTests extends BaseTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testKeysAtAnyDepth(String engine) {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.MASK_KEYS, "ssn,dob,card_number");
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+
+        Assertions.assertEquals(
+                "{\"ssn\":\"\",\"users\":[{\"name\":\"jon\",\"dob\":\"\"},{\"card_number\":{}}],\"a\":{\"b\":{\"ssn\":0}}}",
+                apply(create(configs), "{\"ssn\":\"111\",\"users\":[{\"name\":\"jon\",\"dob\":\"2000\"},{\"card_number\":{\"n\":\"4111\"}}],\"a\":{\"b\":{\"ssn\":123}}}")
+        );
+    }
+
+    @Test
+    public void testManyKeys() {
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            keys.append(i > 0 ? "," : "").append("key_").append(i);
+        }
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.MASK_KEYS, keys.toString());
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING);
+
+        Assertions.assertEquals(
+                "{\"key_499\":\"\",\"x\":{\"key_0\":\"\",\"key_500\":\"b\"}}",
+                apply(create(configs), "{\"key_499\":\"a\",\"x\":{\"key_0\":\"a\",\"key_500\":\"b\"}}")
+        );
+    }
+
+    @Test
+    public void testWithPaths() {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.MASK_KEYS, "a/b,pass~word");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/id=x");
+
+        Assertions.assertEquals(
+                "{\"id\":\"x\",\"u\":{\"a/b\":\"\",\"pass~word\":\"\"}}",
+                apply(create(configs), "{\"id\":\"1\",\"u\":{\"a/b\":\"2\",\"pass~word\":\"3\"}}")
+        );
+    }
+
+    @Test
+    public void testInvalidKey() {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.MASK_KEYS, "ssn,**");
+        Assertions.assertThrows(ConfigException.class, () -> new MaskJsonField.Value<SinkRecord>().configure(configs));
+    }
+
+    @Test
+    public void testNameTable() {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put("name" + i, i);
+        }
+        NameTable<Integer> table = NameTable.of(map);
+        Assertions.assertTrue(table.isPerfect());
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(i, table.get(("name" + i).intern()));
+            // a name that is not interned is found by equals.
+            Assertions.assertEquals(i, table.get(new String("name" + i)));
+        }
+        Assertions.assertNull(table.get("name100"));
+        Assertions.assertNull(NameTable.of(new HashMap<String, Integer>()).get("x"));
+    }
+
+    @Test
+    public void testNameTableWithSameHashCode() {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        // "Aa" and "BB" have the same hashCode, so no multiplier separates them.
+        map.put("Aa", 1);
+        map.put("BB", 2);
+        map.put("C", 3);
+        NameTable<Integer> table = NameTable.of(map);
+        Assertions.assertFalse(table.isPerfect());
+        Assertions.assertEquals(1, table.get("Aa"));
+        Assertions.assertEquals(2, table.get("BB"));
+        Assertions.assertEquals(3, table.get("C"));
+        Assertions.assertNull(table.get("AaBB"));
+    }
+}
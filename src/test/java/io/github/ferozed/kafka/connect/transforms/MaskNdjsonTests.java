@@ -0,0 +1,114 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests for the MaskNdjson command line.
+ */
+public class MaskNdjsonTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testMasksLinesInOrder() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            if (i % 100 == 7) {
+                input.append('\n');
+                expected.append('\n');
+            } else if (i % 3 == 0) {
+                input.append("{\"id\":").append(i).append(",\"ssn\":\"").append(i).append("\"}\r\n");
+                expected.append("{\"id\":").append(i).append(",\"ssn\":\"\"}\r\n");
+            } else {
+                input.append("{\"id\":").append(i).append("}\n");
+                expected.append("{\"id\":").append(i).append("}\n");
+            }
+        }
+        // no newline after the last document.
+        input.append("{\"ssn\":\"x\"}");
+        expected.append("{\"ssn\":\"\"}");
+
+        Path file = dir.resolve("input.ndjson");
+        Files.write(file, input.toString().getBytes(StandardCharsets.UTF_8));
+        JsonMasker masker = JsonMasker.builder().paths("/ssn").build();
+
+        // small chunks, so that the file is split in many of them.
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Assertions.assertEquals(Files.size(file), MaskNdjson.mask(file, output, masker, 4, 100));
+        Assertions.assertEquals(expected.toString(), new String(output.toByteArray(), StandardCharsets.UTF_8));
+        Assertions.assertEquals(662, masker.metrics().getMasked());
+    }
+
+    @Test
+    public void testLongLine() throws IOException {
+        StringBuilder line = new StringBuilder("{\"ssn\":\"1\",\"filler\":\"");
+        for (int i = 0; i < 100000; i++) {
+            line.append('x');
+        }
+        line.append("\"}\n");
+
+        Path file = dir.resolve("input.ndjson");
+        Files.write(file, ("{\"ssn\":\"0\"}\n" + line).getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MaskNdjson.mask(file, output, JsonMasker.builder().paths("/ssn").build(), 2, 16);
+        Assertions.assertEquals(
+                "{\"ssn\":\"\"}\n" + line.toString().replace("\"ssn\":\"1\"", "\"ssn\":\"\""),
+                new String(output.toByteArray(), StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testRun() throws IOException {
+        Path config = dir.resolve("connector.properties");
+        Files.write(config, ("name=sink\n" +
+                "transforms.mask.REPLACEMENT_FIELD_PATHS=/ssn\n" +
+                "transforms.mask.REPLACEMENT_VALUE_STRING=***\n").getBytes(StandardCharsets.UTF_8));
+        Path input = dir.resolve("input.ndjson");
+        Files.write(input, "{\"ssn\":\"1\"}\n{\"ssn\":\"2\"}\n".getBytes(StandardCharsets.UTF_8));
+        Path output = dir.resolve("output.ndjson");
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int code = MaskNdjson.run(
+                new String[]{"--config", config.toString(), "--prefix", "transforms.mask.", "--threads", "2", input.toString(), output.toString()},
+                System.out,
+                new PrintStream(err, true)
+        );
+        Assertions.assertEquals(0, code, err.toString());
+        Assertions.assertEquals("{\"ssn\":\"***\"}\n{\"ssn\":\"***\"}\n", new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+        Assertions.assertTrue(err.toString().contains("MB/s"), err.toString());
+        Assertions.assertTrue(err.toString().contains("masked=2"), err.toString());
+    }
+
+    @Test
+    public void testFailures() throws IOException {
+        PrintStream err = new PrintStream(new ByteArrayOutputStream(), true);
+        Assertions.assertEquals(2, MaskNdjson.run(new String[]{"input.ndjson"}, System.out, err));
+        Assertions.assertEquals(2, MaskNdjson.run(new String[]{"--threads", "x", "--config", "c", "in", "out"}, System.out, err));
+
+        Path config = dir.resolve("masking.properties");
+        Files.write(config, "REPLACEMENT_FIELD_PATH=/ssn\nFAILURE_POLICY=FAIL\n".getBytes(StandardCharsets.UTF_8));
+        Path input = dir.resolve("input.ndjson");
+        Files.write(input, "{\"ssn\":\"1\"}\n{\"ssn\":\n".getBytes(StandardCharsets.UTF_8));
+        String[] args = {"--config", config.toString(), input.toString(), dir.resolve("output.ndjson").toString()};
+        Assertions.assertEquals(1, MaskNdjson.run(args, System.out, err));
+
+        args[2] = dir.resolve("missing.ndjson").toString();
+        Assertions.assertEquals(1, MaskNdjson.run(args, System.out, err));
+
+        Files.write(config, "REPLACEMENT_FIELD_PATH=/ssn\nMASKING_ENGINE=FAST\n".getBytes(StandardCharsets.UTF_8));
+        args[2] = input.toString();
+        Assertions.assertEquals(2, MaskNdjson.run(args, System.out, err));
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for MASKED_HEADER.
+ */
+public class MaskedHeaderTests extends BaseTests {
+
+    @Test
+    public void testReplayIsSkipped() {
+        MaskJsonField<SinkRecord> maskJsonField = create(new MaskJsonField.Value<>(), "/ssn");
+
+        SinkRecord masked = maskJsonField.apply(record("{\"ssn\":\"111-22-1212\"}"));
+        Assertions.assertEquals("{\"ssn\":\"\"}", masked.value());
+        Header header = masked.headers().lastWithName("mask.json.field.plan");
+        Assertions.assertNotNull(header);
+        Assertions.assertEquals(maskJsonField.plan().fingerprint + "-value", header.value());
+
+        Assertions.assertSame(masked, maskJsonField.apply(masked));
+        Assertions.assertEquals(1, maskJsonField.metrics().getAlreadyMasked());
+        Assertions.assertEquals(1, maskJsonField.metrics().getMasked());
+    }
+
+    @Test
+    public void testNotMatchedIsStamped() {
+        MaskJsonField<SinkRecord> maskJsonField = create(new MaskJsonField.Value<>(), "/ssn");
+
+        SinkRecord record = record("{\"name\":\"jon\"}");
+        SinkRecord transformed = maskJsonField.apply(record);
+        Assertions.assertSame(record.value(), transformed.value());
+        Assertions.assertNotNull(transformed.headers().lastWithName("mask.json.field.plan"));
+        Assertions.assertNull(record.headers().lastWithName("mask.json.field.plan"));
+    }
+
+    @Test
+    public void testOtherPlanIsMasked() {
+        MaskJsonField<SinkRecord> first = create(new MaskJsonField.Value<>(), "/ssn");
+        MaskJsonField<SinkRecord> second = create(new MaskJsonField.Value<>(), "/ssn,/dob");
+
+        SinkRecord masked = first.apply(record("{\"ssn\":\"111-22-1212\",\"dob\":\"2000-01-01\"}"));
+        SinkRecord remasked = second.apply(masked);
+        Assertions.assertEquals("{\"ssn\":\"\",\"dob\":\"\"}", remasked.value());
+        Assertions.assertEquals(0, second.metrics().getAlreadyMasked());
+
+        Assertions.assertSame(remasked, second.apply(remasked));
+        Assertions.assertEquals(1, second.metrics().getAlreadyMasked());
+    }
+
+    @Test
+    public void testKeyAndValueStamps() {
+        MaskJsonField<SinkRecord> key = create(new MaskJsonField.Key<>(), "/id");
+        MaskJsonField<SinkRecord> value = create(new MaskJsonField.Value<>(), "/id");
+
+        SinkRecord record = new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "{\"id\":\"a\"}", Schema.STRING_SCHEMA, "{\"id\":\"b\"}", 0);
+
+        // the key stamp does not stop the value from being masked.
+        SinkRecord masked = value.apply(key.apply(record));
+        Assertions.assertEquals("{\"id\":\"\"}", masked.key());
+        Assertions.assertEquals("{\"id\":\"\"}", masked.value());
+
+        Assertions.assertSame(masked, key.apply(masked));
+        Assertions.assertSame(masked, value.apply(masked));
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        SinkRecord record = record("{\"name\":\"jon\"}");
+        Assertions.assertSame(record, maskJsonField.apply(record));
+    }
+
+    @Test
+    public void testFingerprint() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/ssn,/dob");
+        String fingerprint = fingerprint(configs);
+        Assertions.assertEquals(16, fingerprint.length());
+
+        // settings that do not change the output keep the fingerprint.
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE);
+        configs.put(MaskJsonFieldConfig.PREFILTER_ENABLED, true);
+        configs.put(MaskJsonFieldConfig.TOPIC_INCLUDE_PATTERN, "orders.*");
+        Assertions.assertEquals(fingerprint, fingerprint(configs));
+
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_VALUE_STRING, "xxx");
+        Assertions.assertNotEquals(fingerprint, fingerprint(configs));
+
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_MODE, MaskJsonFieldConfig.REPLACEMENT_MODE_HMAC);
+        configs.put(MaskJsonFieldConfig.HMAC_KEY, "secret");
+        String hmac = fingerprint(configs);
+        configs.put(MaskJsonFieldConfig.HMAC_KEY, "other secret");
+        Assertions.assertNotEquals(hmac, fingerprint(configs));
+    }
+
+    private String fingerprint(Map<String,Object> configs) {
+        return MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs)).fingerprint;
+    }
+
+    private MaskJsonField<SinkRecord> create(MaskJsonField<SinkRecord> maskJsonField, String paths) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, paths);
+        configs.put(MaskJsonFieldConfig.MASKED_HEADER, "mask.json.field.plan");
+        maskJsonField.configure(configs);
+        return maskJsonField;
+    }
+}
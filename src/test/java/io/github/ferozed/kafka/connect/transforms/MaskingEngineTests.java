@@ -0,0 +1,149 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the same masking cases through each MASKING_ENGINE.
+ */
+public class MaskingEngineTests extends BaseTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testScalars(String engine) {
+        testLib(engine, "/ssn", "{\"name\":\"jon\",\"ssn\":\"111-22-1212\"}", "{\"name\":\"jon\",\"ssn\":\"\"}");
+        testLib(engine, "/ssn", "{\"ssn\":1234}", "{\"ssn\":0}");
+        testLib(engine, "/ssn", "{\"ssn\":" + Long.MAX_VALUE + "}", "{\"ssn\":0}");
+        testLib(engine, "/ssn", "{\"ssn\":12.5}", "{\"ssn\":0.0}");
+        testLib(engine, "/ssn", "{\"ssn\":true}", "{\"ssn\":null}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testContainers(String engine) {
+        testLib(engine, "/ssn", "{\"ssn\":[\"111\",\"22\",\"3333\"],\"a\":1}", "{\"ssn\":[],\"a\":1}");
+        testLib(engine, "/ssn", "{\"ssn\":{\"value\":\"111\",\"x\":[1,2]},\"a\":1}", "{\"ssn\":{},\"a\":1}");
+        testLib(engine, "/ssn/2", "{\"ssn\":[\"111\",\"22\",\"3333\"]}", "{\"ssn\":[\"111\",\"22\",\"\"]}");
+        testLib(engine, "/foo/bar/ssn/2", "{\"foo\":{\"bar\":{\"ssn\":[111,22,3333]}}}", "{\"foo\":{\"bar\":{\"ssn\":[111,22,0]}}}");
+        testLib(engine, "/0/ssn", "[{\"ssn\":\"1\"},{\"ssn\":\"2\"}]", "[{\"ssn\":\"\"},{\"ssn\":\"2\"}]");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testSimilarPaths(String engine) {
+        // same property name at a different depth must not match.
+        testLib(engine, "/ssn", "{\"inner\":{\"ssn\":\"1\"},\"ssn\":\"2\"}", "{\"inner\":{\"ssn\":\"1\"},\"ssn\":\"\"}");
+        // numeric segment addresses an object property too.
+        testLib(engine, "/ssn/1", "{\"ssn\":{\"1\":\"a\",\"2\":\"b\"}}", "{\"ssn\":{\"1\":\"\",\"2\":\"b\"}}");
+        testLib(engine, "/a~1b", "{\"a/b\":\"x\"}", "{\"a/b\":\"\"}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testMultiplePaths(String engine) {
+        testLib(
+                engine,
+                "/ssn/0=xxx,/ssn/1=xx,/age=-1,/name",
+                "{\"name\":\"jon\",\"age\":42,\"ssn\":[\"111\",\"22\",\"1212\"]}",
+                "{\"name\":\"\",\"age\":-1,\"ssn\":[\"xxx\",\"xx\",\"1212\"]}"
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testUnchanged(String engine) {
+        String payload = "{ \"foo\": { \"nothing\": \"1\" } }";
+        testLib(engine, "/foo/bar", payload, payload);
+        testLib(engine, "/foo/bar", "{", "{");
+        testLib(engine, "/foo/bar", "", "");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testBufferReuse(String engine) {
+        // the thread's output buffers grow for the large payload, and must not leak into the next one.
+        StringBuilder large = new StringBuilder("{\"filler\":\"");
+        while (large.length() < MaskingBuffers.MAX_RETAINED_SIZE + 10) {
+            large.append("0123456789");
+        }
+        String filler = large.substring("{\"filler\":\"".length());
+        large.append("\",\"ssn\":\"111\"}");
+
+        testLib(engine, "/ssn", large.toString(), "{\"filler\":\"" + filler + "\",\"ssn\":\"\"}");
+        testLib(engine, "/ssn", "{\"ssn\":\"1\"}", "{\"ssn\":\"\"}");
+        testLib(engine, "/ssn", "{\"a\":1,\"ssn\":\"1\"}", "{\"a\":1,\"ssn\":\"\"}");
+    }
+
+    @Test
+    public void testSplicePreservesFormatting() {
+        testLib(
+                MaskJsonFieldConfig.MASKING_ENGINE_SPLICE,
+                "/ssn,/info/age=-1,/info/tags",
+                "{ \"name\" : \"jon\",\n  \"ssn\":\"111-\\\"22\\\"-1212\" ,\n  \"info\": { \"age\": 4.20e1, \"score\": 1.50, \"tags\": [ 1, {\"a\": []} ] } }",
+                "{ \"name\" : \"jon\",\n  \"ssn\":\"\" ,\n  \"info\": { \"age\": -1.0, \"score\": 1.50, \"tags\": [] } }"
+        );
+        testLib(
+                MaskJsonFieldConfig.MASKING_ENGINE_SPLICE,
+                "/ssn=say \"hi\"",
+                "{\"ssn\": \"111\"}",
+                "{\"ssn\": \"say \\\"hi\\\"\"}"
+        );
+        testLib(
+                MaskJsonFieldConfig.MASKING_ENGINE_SPLICE,
+                "/ssn",
+                "{\"name\": \"j\u00f6n \u2603\", \"ssn\": 12 }",
+                "{\"name\": \"j\u00f6n \u2603\", \"ssn\": 0 }"
+        );
+    }
+
+    @Test
+    public void testWholeDocument() {
+        String[] payloads = {"{\"ssn\":\"111\"}", "[1,2]", "\"111\"", "42", "{\"ssn\":\"111\",\"cards\":[\"1\"]}"};
+        for (String payload : payloads) {
+            Map<String,Object> configs = new HashMap<>();
+            configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "");
+            configs.put(MaskJsonFieldConfig.MASKING_ENGINE, MaskJsonFieldConfig.MASKING_ENGINE_TREE);
+            String tree = apply(create(configs), payload);
+            Assertions.assertNotEquals(payload, tree);
+
+            for (String engine : new String[] {MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE}) {
+                configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+                Assertions.assertEquals(tree, apply(create(configs), payload), engine + " " + payload);
+            }
+        }
+
+        // the whole document wins over the other pointers.
+        testLib(MaskJsonFieldConfig.MASKING_ENGINE_TREE, "/ssn,", "{\"ssn\":\"111\"}", "{}");
+    }
+
+    private void testLib(String engine, String paths, String payload, String expectedJson) {
+        MaskJsonField maskJsonField = new MaskJsonField.Value();
+
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, paths);
+        maskJsonField.configure(configs);
+
+        SinkRecord sinkRecord = new SinkRecord(
+                "topic",
+                0,
+                SchemaBuilder.STRING_SCHEMA,
+                "key",
+                SchemaBuilder.STRING_SCHEMA,
+                payload,
+                0
+        );
+
+        ConnectRecord transformedRecord = maskJsonField.apply(sinkRecord);
+
+        Assertions.assertEquals(expectedJson, transformedRecord.value(), engine + " " + paths);
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MaskingPlanTests {
+
+    @Test
+    public void testCompile() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.CONNECT_FIELD_NAME, "private_info.data");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/ssn/2=xxx,/user/age");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_VALUE_INT, -1);
+
+        MaskingPlan plan = MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs));
+
+        Assertions.assertArrayEquals(new String[] {"private_info", "data"}, plan.connectFieldTokens);
+        Assertions.assertEquals(2, plan.rules.length);
+
+        MaskingRule ssn = plan.rules[0];
+        Assertions.assertEquals("/ssn", ssn.head.toString());
+        Assertions.assertEquals(2, ssn.lastIndex);
+        Assertions.assertArrayEquals(new String[] {"ssn", "2"}, ssn.properties);
+        Assertions.assertArrayEquals(new int[] {-1, 2}, ssn.indexes);
+        Assertions.assertEquals("xxx", ssn.textNode.textValue());
+        Assertions.assertEquals("\"xxx\"", ssn.stringLiteral);
+        Assertions.assertEquals(-1, ssn.intNode.intValue());
+
+        MaskingRule age = plan.rules[1];
+        Assertions.assertEquals("age", age.lastProperty);
+        Assertions.assertEquals("", age.textNode.textValue());
+        Assertions.assertEquals("-1", age.intLiteral);
+        Assertions.assertEquals("0.0", age.doubleLiteral);
+    }
+
+    @Test
+    public void testAutomaton() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/users/0/ssn,/users/*/ssn,**/dob");
+
+        MaskingPlan plan = MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs));
+        PathAutomaton.State users = plan.automaton.start.property("users");
+
+        Assertions.assertEquals(0, users.index(0).property("ssn").accept);
+        Assertions.assertEquals(1, users.index(7).property("ssn").accept);
+        Assertions.assertEquals(1, users.property("x").property("ssn").accept);
+        Assertions.assertEquals(2, users.index(3).property("dob").accept);
+        Assertions.assertEquals(2, plan.automaton.start.property("a").property("b").property("dob").accept);
+        Assertions.assertEquals(-1, users.index(0).property("name").accept);
+        Assertions.assertFalse(users.index(0).property("name").isDead());
+
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/users/*/ssn");
+        plan = MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs));
+        Assertions.assertTrue(plan.automaton.start.property("accounts").isDead());
+        Assertions.assertTrue(plan.automaton.start.property("users").index(0).property("name").isDead());
+    }
+
+    @Test
+    public void testInvalidPointer() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "ssn");
+
+        Assertions.assertThrows(
+                ConfigException.class,
+                () -> MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs))
+        );
+    }
+
+    @Test
+    public void testNonFiniteReplacement() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        for (Object value : new Object[] {Double.NaN, "Infinity", Double.NEGATIVE_INFINITY}) {
+            configs.put(MaskJsonFieldConfig.REPLACEMENT_VALUE_DOUBLE, value);
+            Assertions.assertThrows(
+                    ConfigException.class,
+                    () -> new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs),
+                    String.valueOf(value)
+            );
+        }
+
+        // a per path value that is not a finite number is used for strings only.
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_VALUE_DOUBLE, 1.5);
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/a=NaN,/b=-Infinity");
+        MaskingPlan plan = MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs));
+        for (MaskingRule rule : plan.rules) {
+            Assertions.assertEquals("1.5", rule.doubleLiteral);
+            Assertions.assertEquals("1.5", rule.floatLiteral);
+        }
+        Assertions.assertEquals("\"NaN\"", plan.rules[1].stringLiteral);
+
+        // finite doubles out of the range of a float are kept for doubles, and clamped for floats.
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_VALUE_DOUBLE, -Double.MAX_VALUE);
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/a=1e300");
+        plan = MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs));
+        Assertions.assertEquals(Double.toString(-Double.MAX_VALUE), plan.rules[0].doubleLiteral);
+        Assertions.assertEquals(Float.toString(-Float.MAX_VALUE), plan.rules[0].floatLiteral);
+        Assertions.assertEquals("1.0E300", plan.rules[1].doubleLiteral);
+        Assertions.assertEquals(Float.MAX_VALUE, plan.rules[1].floatNode.floatValue());
+    }
+}
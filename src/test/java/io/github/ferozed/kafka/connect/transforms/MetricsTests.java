@@ -0,0 +1,119 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for the outcome counters, rule hits, stage latencies and the JMX registration.
+ */
+public class MetricsTests extends BaseTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testOutcomes(String engine) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/ssn,/cards/*");
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        apply(maskJsonField, "{\"ssn\":\"111\",\"cards\":[\"1\",\"2\"]}");
+        apply(maskJsonField, "{\"ssn\":\"111\"}");
+        apply(maskJsonField, "{\"name\":{\"ssn\":\"111\"}}");
+        apply(maskJsonField, "{\"ssn\":");
+
+        MaskJsonFieldMetrics metrics = maskJsonField.metrics();
+        Assertions.assertEquals(2, metrics.getMasked());
+        Assertions.assertEquals(1, metrics.getNotMatched());
+        Assertions.assertEquals(1, metrics.getParseFailed());
+        Assertions.assertArrayEquals(new String[] {"/ssn", "/cards/*"}, metrics.getRulePaths());
+        Assertions.assertArrayEquals(new long[] {2, 2}, metrics.getRuleHits());
+
+        // payloads without a match are parsed but not serialized.
+        Assertions.assertEquals(3, metrics.getParseCount());
+        Assertions.assertEquals(2, metrics.getSerializeCount());
+        Assertions.assertEquals(MaskJsonFieldConfig.MASKING_ENGINE_TREE.equals(engine) ? 3 : 0, metrics.getMutateCount());
+        Assertions.assertTrue(metrics.getParseMaxNanos() > 0);
+        Assertions.assertTrue(metrics.getParseP99Nanos() <= metrics.getParseMaxNanos());
+
+        maskJsonField.close();
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+        apply(maskJsonField, "{\"ssn\":\"111\"}");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Assertions.assertNotNull(maskJsonField.metricsName);
+        Assertions.assertEquals("value", maskJsonField.metricsName.getKeyProperty("side"));
+        Assertions.assertEquals(1L, server.getAttribute(maskJsonField.metricsName, "Masked"));
+        Assertions.assertArrayEquals(new long[] {1}, (long[]) server.getAttribute(maskJsonField.metricsName, "RuleHits"));
+
+        ObjectName name = maskJsonField.metricsName;
+        maskJsonField.close();
+        Assertions.assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testMetricsDisabled() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.METRICS_ENABLED, false);
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+        apply(maskJsonField, "{\"ssn\":\"111\"}");
+
+        Assertions.assertNull(maskJsonField.metricsName);
+        Assertions.assertEquals(1, maskJsonField.metrics().getMasked());
+        Assertions.assertArrayEquals(new long[] {0}, maskJsonField.metrics().getRuleHits());
+        Assertions.assertEquals(0, maskJsonField.metrics().getParseCount());
+    }
+
+    @Test
+    public void testSlowRecord() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.SLOW_RECORD_THRESHOLD_MS, 1L);
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        StringBuilder payload = new StringBuilder("{\"items\":[0");
+        for (int i = 1; i < 1_000_000; i++) {
+            payload.append(',').append(i);
+        }
+        payload.append("],\"ssn\":\"111\"}");
+
+        apply(maskJsonField, payload.toString());
+        Assertions.assertEquals(1, maskJsonField.metrics().getSlowRecords());
+
+        maskJsonField.close();
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.percentile(50));
+
+        for (int i = 0; i < 98; i++) {
+            histogram.record(1000);
+        }
+        histogram.record(1_000_000);
+        histogram.record(5_000_000);
+
+        Assertions.assertEquals(100, histogram.count());
+        Assertions.assertEquals(1023, histogram.percentile(50));
+        Assertions.assertEquals(1_048_575, histogram.percentile(99));
+        Assertions.assertEquals(5_000_000, histogram.percentile(100));
+        Assertions.assertEquals(5_000_000, histogram.max());
+        Assertions.assertEquals((98 * 1000 + 6_000_000) / 100, histogram.mean());
+    }
+}
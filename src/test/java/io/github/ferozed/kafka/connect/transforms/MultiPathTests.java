@@ -0,0 +1,105 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for masking several pointers with REPLACEMENT_FIELD_PATHS.
+ */
+public class MultiPathTests extends BaseTests {
+
+    @Test
+    public void testMultiplePaths() {
+        testLib(
+                "/ssn/0,/ssn/1",
+                "{\"name\":\"jon\",\"ssn\":[\"111\",\"22\",\"1212\"]}",
+                "{\"name\":\"jon\",\"ssn\":[\"\",\"\",\"1212\"]}"
+        );
+    }
+
+    @Test
+    public void testPerPathReplacement() {
+        testLib(
+                "/ssn/0=xxx,/ssn/1=xx,/age=-1,/name",
+                "{\"name\":\"jon\",\"age\":42,\"ssn\":[\"111\",\"22\",\"1212\"]}",
+                "{\"name\":\"\",\"age\":-1,\"ssn\":[\"xxx\",\"xx\",\"1212\"]}"
+        );
+    }
+
+    @Test
+    public void testNumericReplacementFallsBackToConfig() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/age=unknown");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_VALUE_INT, 7);
+
+        Assertions.assertEquals(
+                "{\"age\":7}",
+                apply(create(configs), "{\"age\":42}")
+        );
+    }
+
+    @Test
+    public void testPartialMatch() {
+        testLib(
+                "/missing,/ssn",
+                "{\"name\":\"jon\",\"ssn\":\"111-22-1212\"}",
+                "{\"name\":\"jon\",\"ssn\":\"\"}"
+        );
+    }
+
+    @Test
+    public void testNoMatchReturnsPayload() {
+        String payload = "{ \"name\": \"jon\" }";
+        testLib(
+                "/missing,/ssn",
+                payload,
+                payload
+        );
+    }
+
+    @Test
+    public void testSinglePathCombinedWithList() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/name");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/ssn=xxx");
+
+        Assertions.assertEquals(
+                "{\"name\":\"\",\"ssn\":\"xxx\"}",
+                apply(create(configs), "{\"name\":\"jon\",\"ssn\":\"111-22-1212\"}")
+        );
+    }
+
+    @Test
+    public void testEscapes() {
+        // a property named "a=b,c", and replacement values with a comma and a tilde.
+        testLib(
+                "/a~3b~2c=x~2y,/ssn=~02,/t~0~1u",
+                "{\"a=b,c\":\"1\",\"ssn\":\"2\",\"t~/u\":\"3\"}",
+                "{\"a=b,c\":\"x,y\",\"ssn\":\"~2\",\"t~/u\":\"\"}"
+        );
+
+        ReplacementPath path = ReplacementPath.parse("/x~03=a=b");
+        Assertions.assertEquals("/x~03", path.getPath());
+        Assertions.assertEquals("a=b", path.getReplacement());
+    }
+
+    @Test
+    public void testInvalidPointer() {
+        MaskJsonField maskJsonField = new MaskJsonField.Value();
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "ssn");
+
+        Assertions.assertThrows(ConfigException.class, () -> maskJsonField.configure(configs));
+    }
+
+    private void testLib(String paths, String payload, String expectedJson) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, paths);
+
+        Assertions.assertEquals(expectedJson, apply(create(configs), payload));
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for REPLACEMENT_MODE=PARTIAL.
+ */
+public class PartialMaskTests extends BaseTests {
+
+    @Test
+    public void testMask() {
+        PartialMask keepLast = new PartialMask(0, 4, '*', true);
+        Assertions.assertEquals("***-**-1212", keepLast.mask("111-22-1212"));
+        Assertions.assertEquals("**** **** **** 1111", keepLast.mask("4111 1111 1111 1111"));
+        Assertions.assertEquals("", keepLast.mask(""));
+        // too short to keep anything.
+        Assertions.assertEquals("***-*", keepLast.mask("123-4"));
+
+        PartialMask keepFirst = new PartialMask(2, 0, '#', false);
+        Assertions.assertEquals("11#########", keepFirst.mask("111-22-1212"));
+
+        PartialMask both = new PartialMask(1, 1, 'x', true);
+        Assertions.assertEquals("jxx.xxx@xxxxxxx.xxm", both.mask("jon.doe@example.com"));
+        // a surrogate pair is one char.
+        Assertions.assertEquals("axxd", both.mask("a😀cd"));
+        Assertions.assertEquals("xx", both.mask("a😀"));
+        Assertions.assertEquals("xx", both.mask("ab"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testEngines(String engine) {
+        MaskJsonField<SinkRecord> maskJsonField = create(engine);
+
+        Assertions.assertEquals(
+                "{\"ssn\":\"***-**-1212\",\"card\":0,\"name\":\"jon\"}",
+                apply(maskJsonField, "{\"ssn\":\"111-22-1212\",\"card\":4111,\"name\":\"jon\"}")
+        );
+        Assertions.assertEquals(
+                "{\"ssn\":\"**\\nc-ü\\u00e9\\\"Z\"}",
+                apply(maskJsonField, "{\"ssn\":\"ab\\nc-ü\\u00e9\\\"Z\"}")
+                        // the tree and streaming engines write the é and the newline themselves.
+                        .replace("é", "\\u00e9")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testBytes(String engine) throws Exception {
+        MaskJsonField<SinkRecord> maskJsonField = create(engine);
+
+        byte[] payload = "{\"ssn\":\"東京-1234-😀üüü\"}".getBytes(StandardCharsets.UTF_8);
+        SinkRecord record = record(Schema.BYTES_SCHEMA, payload);
+        // the generators write the emoji as an escaped surrogate pair, so compare the values.
+        Assertions.assertEquals(
+                "**-****-😀üüü",
+                MaskingEngine.mapper.readTree((byte[]) maskJsonField.apply(record).value()).get("ssn").textValue()
+        );
+
+        payload = "{\"ssn\":\"東京-1234-ü😀üü\"}".getBytes(StandardCharsets.UTF_8);
+        record = record(Schema.BYTES_SCHEMA, payload);
+        Assertions.assertEquals(
+                "**-****-ü😀üü",
+                MaskingEngine.mapper.readTree((byte[]) maskJsonField.apply(record).value()).get("ssn").textValue()
+        );
+
+        payload = "{\"ssn\":\"😀-\\uD83D\\uDE00-1234\"}".getBytes(StandardCharsets.UTF_8);
+        record = record(Schema.BYTES_SCHEMA, payload);
+        Assertions.assertEquals(
+                "*-*-1234",
+                MaskingEngine.mapper.readTree((byte[]) maskJsonField.apply(record).value()).get("ssn").textValue()
+        );
+    }
+
+    @Test
+    public void testConfig() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_MODE, MaskJsonFieldConfig.REPLACEMENT_MODE_PARTIAL);
+        configs.put(MaskJsonFieldConfig.PARTIAL_MASK_CHAR, "\"");
+
+        Assertions.assertThrows(ConfigException.class, () -> new MaskJsonField.Value<SinkRecord>().configure(configs));
+        configs.put(MaskJsonFieldConfig.PARTIAL_MASK_CHAR, "**");
+        Assertions.assertThrows(ConfigException.class, () -> new MaskJsonField.Value<SinkRecord>().configure(configs));
+    }
+
+    private MaskJsonField<SinkRecord> create(String engine) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/ssn,/card");
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_MODE, MaskJsonFieldConfig.REPLACEMENT_MODE_PARTIAL);
+        return create(configs);
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Tests for AUDIT_SAMPLE_RATE.
+ */
+public class PayloadAuditorTests extends BaseTests {
+
+    @Test
+    public void testFindsLeak() throws InterruptedException {
+        MaskJsonField<SinkRecord> maskJsonField = create(1.0);
+        try {
+            // the pointer misses, so the ssn is passed through.
+            apply(maskJsonField, "{\"social\":\"123-45-6789\",\"ssn\":null}");
+            apply(maskJsonField, Schema.BYTES_SCHEMA, "{\"ssn\":\"123-45-6789\"}".getBytes(StandardCharsets.UTF_8));
+
+            MaskJsonFieldMetrics metrics = maskJsonField.metrics();
+            await(metrics::getAuditScanned, 2);
+            Assertions.assertEquals(2, metrics.getAuditSampled());
+            Assertions.assertEquals(1, metrics.getAuditLeaks());
+            Assertions.assertArrayEquals(new long[]{1, 0, 0, 0}, metrics.getAuditDetectorHits());
+        } finally {
+            maskJsonField.close();
+        }
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        MaskJsonField<SinkRecord> maskJsonField = create(0.0);
+        apply(maskJsonField, "{\"social\":\"123-45-6789\"}");
+        Assertions.assertEquals(0, maskJsonField.metrics().getAuditSampled());
+    }
+
+    @Test
+    public void testRing() {
+        PayloadAuditor.Ring ring = new PayloadAuditor.Ring(3);
+        Assertions.assertNull(ring.poll());
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                Assertions.assertTrue(ring.offer(i));
+            }
+            // rounded up to 4 slots.
+            Assertions.assertFalse(ring.offer(4));
+            for (int i = 0; i < 4; i++) {
+                Assertions.assertEquals(Integer.valueOf(i), ring.poll());
+            }
+            Assertions.assertNull(ring.poll());
+        }
+    }
+
+    @Test
+    public void testRingWithManyProducers() throws InterruptedException {
+        PayloadAuditor.Ring ring = new PayloadAuditor.Ring(1 << 16);
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            int producer = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    Assertions.assertTrue(ring.offer(producer * 10000 + i));
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        boolean[] seen = new boolean[40000];
+        for (int i = 0; i < seen.length; i++) {
+            Integer item = ring.poll();
+            Assertions.assertNotNull(item);
+            Assertions.assertFalse(seen[item]);
+            seen[item] = true;
+        }
+        Assertions.assertNull(ring.poll());
+    }
+
+    private static void await(LongSupplier counter, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (counter.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(expected, counter.getAsLong());
+    }
+
+    private MaskJsonField<SinkRecord> create(double sampleRate) {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.AUDIT_SAMPLE_RATE, sampleRate);
+        return create(configs);
+    }
+}
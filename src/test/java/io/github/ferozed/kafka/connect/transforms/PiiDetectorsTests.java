@@ -0,0 +1,111 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for DETECTORS.
+ */
+public class PiiDetectorsTests extends BaseTests {
+    private static final PiiDetectors ALL = new PiiDetectors(
+            Arrays.asList("SSN", "PAN", "EMAIL", "PHONE"), "#", null, null);
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "ssn 123-45-6789 on file|ssn # on file",
+            "ssn 123 45 6789|ssn #",
+            "card 4111 1111 1111 1111, exp 12/25|card #, exp 12/25",
+            "card 4111-1111-1111-1111|card #",
+            "card 4111111111111111.|card #.",
+            "mail Jon.Doe+x@mail.example.com.|mail #.",
+            "(415) 555-2671 or +1 415 555 2671|# or #",
+            "call 415.555.2671 now|call # now",
+            "a@b.c and x@y|a@b.c and x@y",
+            "card 4111 1111 1111 1112|card 4111 1111 1111 1112",
+            "ssn 000-12-3456 or 123-45-67890|ssn 000-12-3456 or 123-45-67890",
+            "order 1234567890 at 2023-10-17 from 192.168.100.200|order 1234567890 at 2023-10-17 from 192.168.100.200",
+            "id abc123-45-6789|id abc123-45-6789",
+    })
+    public void testRedact(String text, String expected) {
+        String redacted = ALL.redact(text, MaskingListener.NONE);
+        Assertions.assertEquals(expected, redacted == null ? text : redacted);
+        if (text.equals(expected)) {
+            Assertions.assertNull(redacted);
+        }
+    }
+
+    @Test
+    public void testOnlyEnabledDetectors() {
+        PiiDetectors detectors = new PiiDetectors(Arrays.asList("EMAIL"), "#", null, null);
+        Assertions.assertEquals("# 123-45-6789", detectors.redact("a@b.io 123-45-6789", MaskingListener.NONE));
+    }
+
+    @Test
+    public void testLongText() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append("@@@@ 1-2-3-4 x@ ");
+        }
+        Assertions.assertNull(ALL.redact(text.toString(), MaskingListener.NONE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testTransform(String engine) {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.DETECTORS, "SSN,EMAIL");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/id");
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+        configs.put(MaskJsonFieldConfig.PREFILTER_ENABLED, true);
+
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        Assertions.assertEquals(
+                "{\"id\":\"\",\"notes\":[\"mail [REDACTED] re [REDACTED]\"],\"n\":{\"d\":\"ok\"}}",
+                apply(maskJsonField, "{\"id\":\"1\",\"notes\":[\"mail jon@x.org re 123-45-6789\"],\"n\":{\"d\":\"ok\"}}")
+        );
+        Assertions.assertEquals(
+                "{\"a\":{\"b\":\"[REDACTED]\"}}",
+                apply(maskJsonField, "{\"a\":{\"b\":\"jon@x.org\"}}")
+        );
+        Assertions.assertArrayEquals(new long[]{1, 0, 2, 0}, maskJsonField.metrics().getDetectorHits());
+        Assertions.assertEquals(2, maskJsonField.metrics().getMasked());
+    }
+
+    @Test
+    public void testPartialMode() {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.DETECTORS, "PAN");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_MODE, MaskJsonFieldConfig.REPLACEMENT_MODE_PARTIAL);
+
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        Assertions.assertEquals(
+                "{\"notes\":\"paid with ****-****-****-1111\"}",
+                apply(maskJsonField, "{\"notes\":\"paid with 4111-1111-1111-1111\"}")
+        );
+
+        String payload = "{\"notes\":\"nothing here\"}";
+        Assertions.assertSame(payload, apply(maskJsonField, payload));
+    }
+
+    @Test
+    public void testInvalidConfig() {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.DETECTORS, "IBAN");
+        Assertions.assertThrows(ConfigException.class, () -> new MaskJsonField.Value<SinkRecord>().configure(configs));
+
+        configs.put(MaskJsonFieldConfig.DETECTORS, "SSN");
+        configs.put(MaskJsonFieldConfig.MASKING_TARGET, MaskJsonFieldConfig.MASKING_TARGET_CONNECT);
+        Assertions.assertThrows(ConfigException.class, () -> new MaskJsonField.Value<SinkRecord>().configure(configs));
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for PREFILTER_ENABLED.
+ */
+public class PrefilterTests extends BaseTests {
+
+    @Test
+    public void testSkipsPayloadWithoutField() {
+        MaskJsonField<SinkRecord> maskJsonField = create("/user/ssn,/cards/0");
+
+        String payload = "{\"user\":{\"name\":\"jon\"},\"accounts\":[\"4111\"]}";
+        Assertions.assertSame(payload, apply(maskJsonField, payload));
+        Assertions.assertEquals(0, maskJsonField.getPrefilterHits());
+        Assertions.assertEquals(1, maskJsonField.getPrefilterSkips());
+    }
+
+    @Test
+    public void testMasksPayloadWithField() {
+        MaskJsonField<SinkRecord> maskJsonField = create("/user/ssn,/cards/0");
+
+        Assertions.assertEquals(
+                "{\"user\":{\"ssn\":\"\"}}",
+                apply(maskJsonField, "{\"user\":{\"ssn\":\"111-22-1212\"}}")
+        );
+        Assertions.assertEquals(
+                "{\"cards\":[\"\"]}",
+                apply(maskJsonField, "{\"cards\":[\"4111\"]}")
+        );
+        Assertions.assertEquals(2, maskJsonField.getPrefilterHits());
+        Assertions.assertEquals(0, maskJsonField.getPrefilterSkips());
+    }
+
+    @Test
+    public void testFieldNameAsValue() {
+        MaskJsonField<SinkRecord> maskJsonField = create("/user/ssn");
+
+        // "ssn" shows up as a value, so the payload is parsed, but nothing is masked.
+        String payload = "{\"user\":{\"type\":\"ssn\"}}";
+        Assertions.assertEquals(payload, apply(maskJsonField, payload));
+        Assertions.assertEquals(1, maskJsonField.getPrefilterHits());
+    }
+
+    @Test
+    public void testCompile() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.PREFILTER_ENABLED, true);
+
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/users/*/ssn,**/dob/0");
+        Assertions.assertNotNull(MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs)).prefilter);
+
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/ssn,/*/0");
+        Assertions.assertNull(MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs)).prefilter);
+
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/ssn,/0");
+        Assertions.assertNull(MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs)).prefilter);
+
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/ssn");
+        configs.put(MaskJsonFieldConfig.PREFILTER_ENABLED, false);
+        Assertions.assertNull(MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs)).prefilter);
+    }
+
+    @Test
+    public void testQuotedNeedle() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.PREFILTER_ENABLED, true);
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/a\"b");
+
+        Prefilter prefilter = MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs)).prefilter;
+        Assertions.assertTrue(prefilter.mightMatch("{\"a\\\"b\":1}"));
+        Assertions.assertFalse(prefilter.mightMatch("{\"ab\":1}"));
+        Assertions.assertFalse(prefilter.mightMatch((String) null));
+    }
+
+    private MaskJsonField<SinkRecord> create(String paths) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, paths);
+        configs.put(MaskJsonFieldConfig.PREFILTER_ENABLED, true);
+        return create(configs);
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.header.Headers;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for the topic and header filters.
+ */
+public class RecordFilterTests extends BaseTests {
+
+    private static final String PAYLOAD = "{\"ssn\":\"111\"}";
+    private static final String MASKED = "{\"ssn\":\"\"}";
+
+    @Test
+    public void testTopics() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.TOPIC_INCLUDE_PATTERN, "pii\\..*");
+        configs.put(MaskJsonFieldConfig.TOPIC_INCLUDE_PREFIXES, "customers-,orders-");
+        configs.put(MaskJsonFieldConfig.TOPIC_EXCLUDE_PATTERN, ".*-test");
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        Assertions.assertEquals(MASKED, maskJsonField.apply(record("pii.users", new ConnectHeaders())).value());
+        Assertions.assertEquals(MASKED, maskJsonField.apply(record("customers-eu", new ConnectHeaders())).value());
+        Assertions.assertEquals(MASKED, maskJsonField.apply(record("orders-us", new ConnectHeaders())).value());
+
+        for (String topic : new String[]{"clicks", "pii.users-test", "orders-test", "xpii.users"}) {
+            SinkRecord record = record(topic, new ConnectHeaders());
+            Assertions.assertSame(record, maskJsonField.apply(record), topic);
+        }
+        Assertions.assertEquals(4, maskJsonField.metrics().getFiltered());
+        Assertions.assertEquals(3, maskJsonField.metrics().getMasked());
+    }
+
+    @Test
+    public void testExcludeOnly() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.TOPIC_EXCLUDE_PATTERN, "public\\..*");
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        Assertions.assertEquals(MASKED, maskJsonField.apply(record("users", new ConnectHeaders())).value());
+        SinkRecord record = record("public.users", new ConnectHeaders());
+        Assertions.assertSame(record, maskJsonField.apply(record));
+    }
+
+    @Test
+    public void testHeaders() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.HEADER_INCLUDE, "pii,classification=restricted");
+        configs.put(MaskJsonFieldConfig.HEADER_EXCLUDE, "masked=true");
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+
+        Assertions.assertEquals(MASKED, maskJsonField.apply(record("t", new ConnectHeaders().addString("pii", "x"))).value());
+        Assertions.assertEquals(MASKED, maskJsonField.apply(record("t",
+                new ConnectHeaders().addBytes("classification", "restricted".getBytes(StandardCharsets.UTF_8)))).value());
+
+        SinkRecord[] skipped = {
+                record("t", new ConnectHeaders()),
+                record("t", new ConnectHeaders().addString("classification", "public")),
+                record("t", new ConnectHeaders().addString("pii", "x").addString("masked", "true")),
+        };
+        for (SinkRecord record : skipped) {
+            Assertions.assertSame(record, maskJsonField.apply(record));
+        }
+    }
+
+    @Test
+    public void testNoFilter() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        Assertions.assertNull(MaskingPlan.compile(new MaskJsonFieldConfig(MaskJsonFieldConfig.config(), configs)).filter);
+    }
+
+    @Test
+    public void testInvalidPattern() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.TOPIC_INCLUDE_PATTERN, "(");
+        Assertions.assertThrows(ConfigException.class, () -> create(configs));
+    }
+
+    private SinkRecord record(String topic, Headers headers) {
+        return new SinkRecord(topic, 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, PAYLOAD, 0, null, null, headers);
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for RULES_FILE.
+ */
+public class RulesFileTests extends BaseTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testReload() throws IOException {
+        Path file = write("REPLACEMENT_FIELD_PATHS=/ssn\n");
+        MaskJsonField<SinkRecord> maskJsonField = create(file, 60000);
+        try {
+            Assertions.assertEquals("{\"ssn\":\"\",\"dob\":\"1990\"}", apply(maskJsonField, "{\"ssn\":\"111\",\"dob\":\"1990\"}"));
+            Assertions.assertFalse(maskJsonField.rulesFile.reload());
+
+            write("REPLACEMENT_FIELD_PATHS=/dob\nREPLACEMENT_VALUE_STRING=xxx\n");
+            Assertions.assertTrue(maskJsonField.rulesFile.reload());
+            Assertions.assertEquals("{\"ssn\":\"111\",\"dob\":\"xxx\"}", apply(maskJsonField, "{\"ssn\":\"111\",\"dob\":\"1990\"}"));
+
+            MaskJsonFieldMetrics metrics = maskJsonField.metrics();
+            Assertions.assertEquals(1, metrics.getRulesReloads());
+            Assertions.assertArrayEquals(new String[]{"/dob"}, metrics.getRulePaths());
+            Assertions.assertArrayEquals(new long[]{1}, metrics.getRuleHits());
+        } finally {
+            maskJsonField.close();
+        }
+    }
+
+    @Test
+    public void testInvalidFileKeepsRules() throws IOException {
+        Path file = write("REPLACEMENT_FIELD_PATHS=/ssn\n");
+        MaskJsonField<SinkRecord> maskJsonField = create(file, 60000);
+        try {
+            write("REPLACEMENT_FIELD_PATHS=/dob\nMASKING_ENGINE=NOPE\n");
+            Assertions.assertFalse(maskJsonField.rulesFile.reload());
+            // the same contents are not compiled again.
+            Assertions.assertFalse(maskJsonField.rulesFile.reload());
+            Assertions.assertEquals(1, maskJsonField.metrics().getRulesReloadFailures());
+            Assertions.assertEquals("{\"ssn\":\"\",\"dob\":\"1990\"}", apply(maskJsonField, "{\"ssn\":\"111\",\"dob\":\"1990\"}"));
+
+            Files.delete(file);
+            Assertions.assertFalse(maskJsonField.rulesFile.reload());
+            Assertions.assertEquals(2, maskJsonField.metrics().getRulesReloadFailures());
+        } finally {
+            maskJsonField.close();
+        }
+    }
+
+    @Test
+    public void testOverridesConnectorConfig() throws IOException {
+        Path file = write("REPLACEMENT_VALUE_STRING=***\n");
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.RULES_FILE, file.toString());
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_VALUE_STRING, "xxx");
+
+        MaskJsonField<SinkRecord> maskJsonField = create(configs);
+        try {
+            Assertions.assertEquals("{\"ssn\":\"***\"}", apply(maskJsonField, "{\"ssn\":\"111\"}"));
+        } finally {
+            maskJsonField.close();
+        }
+    }
+
+    @Test
+    public void testInvalidFileFailsConfigure() throws IOException {
+        Assertions.assertThrows(ConfigException.class, () -> create(dir.resolve("missing.properties"), 60000));
+        Assertions.assertThrows(ConfigException.class, () -> create(write("METRICS_ENABLED=false\n"), 60000));
+        Assertions.assertThrows(ConfigException.class, () -> create(write("REPLACEMENT_FIELD_PATHS=ssn\n"), 60000));
+    }
+
+    @Test
+    public void testPollsFile() throws IOException, InterruptedException {
+        Path file = write("REPLACEMENT_FIELD_PATHS=/ssn\n");
+        MaskJsonField<SinkRecord> maskJsonField = create(file, 10);
+        try {
+            write("REPLACEMENT_FIELD_PATHS=/dob\n");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (maskJsonField.metrics().getRulesReloads() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(1, maskJsonField.metrics().getRulesReloads());
+            Assertions.assertEquals("{\"ssn\":\"111\",\"dob\":\"\"}", apply(maskJsonField, "{\"ssn\":\"111\",\"dob\":\"1990\"}"));
+        } finally {
+            maskJsonField.close();
+        }
+    }
+
+    /**
+     * Swaps between rules that read different fields of the struct while records are masked. Every record must be
+     * masked with one plan or the other, never a mix.
+     */
+    @Test
+    public void testSwapDuringApply() throws IOException, InterruptedException {
+        String byName = "CONNECT_FIELD_NAME=data\nREPLACEMENT_FIELD_PATHS=/ssn\n";
+        String byPaths = "CONNECT_FIELD_PATHS=other:/ssn\n";
+        Path file = write(byName);
+        MaskJsonField<SinkRecord> maskJsonField = create(file, 60000);
+
+        Schema schema = SchemaBuilder.struct()
+                .field("data", Schema.STRING_SCHEMA)
+                .field("other", Schema.STRING_SCHEMA)
+                .build();
+        String payload = "{\"ssn\":\"111\"}";
+        String masked = "{\"ssn\":\"\"}";
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread reloader = new Thread(() -> {
+            try {
+                for (int i = 0; running.get(); i++) {
+                    write(i % 2 == 0 ? byPaths : byName);
+                    maskJsonField.rulesFile.reload();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        reloader.start();
+        try {
+            for (int i = 0; i < 20000; i++) {
+                Struct value = new Struct(schema).put("data", payload).put("other", payload);
+                SinkRecord record = new SinkRecord("topic", 0, Schema.STRING_SCHEMA, "key", schema, value, i);
+                Struct transformed = (Struct) maskJsonField.apply(record).value();
+
+                boolean data = masked.equals(transformed.getString("data"));
+                boolean other = masked.equals(transformed.getString("other"));
+                Assertions.assertTrue(data != other, transformed.toString());
+            }
+        } finally {
+            running.set(false);
+            reloader.join();
+            maskJsonField.close();
+        }
+        Assertions.assertTrue(maskJsonField.metrics().getRulesReloads() > 0);
+    }
+
+    /**
+     * Replaces the rules file atomically.
+     */
+    private Path write(String contents) throws IOException {
+        Path file = dir.resolve("rules.properties");
+        Path temp = Files.createTempFile(dir, "rules", ".tmp");
+        Files.write(temp, contents.getBytes(StandardCharsets.UTF_8));
+        return Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private MaskJsonField<SinkRecord> create(Path file, long pollMs) {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.RULES_FILE, file.toString());
+        configs.put(MaskJsonFieldConfig.RULES_FILE_POLL_MS, pollMs);
+        return create(configs);
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for the schema keyed CONNECT_FIELD_NAME accessors.
+ */
+public class StructAccessorTests {
+
+    private static final String[] TOKENS = {"payload", "data"};
+
+    private static Schema schema(Schema dataSchema) {
+        Schema payloadSchema = SchemaBuilder.struct()
+                .field("data", dataSchema)
+                .optional()
+                .build();
+        return SchemaBuilder.struct()
+                .field("id", Schema.INT32_SCHEMA)
+                .field("payload", payloadSchema)
+                .build();
+    }
+
+    @Test
+    public void testCompile() {
+        Schema schema = schema(Schema.STRING_SCHEMA);
+        StructAccessor accessor = StructAccessor.compile(schema, TOKENS);
+        Assertions.assertNotNull(accessor);
+        Assertions.assertFalse(accessor.isBytes());
+        Assertions.assertSame(schema.field("payload").schema().field("data"), accessor.field);
+
+        Assertions.assertTrue(StructAccessor.compile(schema(Schema.BYTES_SCHEMA), TOKENS).isBytes());
+        Assertions.assertNull(StructAccessor.compile(schema(Schema.INT32_SCHEMA), TOKENS));
+        Assertions.assertNull(StructAccessor.compile(schema, new String[]{"payload", "missing"}));
+        Assertions.assertNull(StructAccessor.compile(schema, new String[]{"id", "data"}));
+    }
+
+    @Test
+    public void testParent() {
+        Schema schema = schema(Schema.STRING_SCHEMA);
+        StructAccessor accessor = StructAccessor.compile(schema, TOKENS);
+
+        Struct payload = new Struct(schema.field("payload").schema()).put("data", "{}");
+        Assertions.assertSame(payload, accessor.parent(new Struct(schema).put("id", 1).put("payload", payload)));
+        Assertions.assertNull(accessor.parent(new Struct(schema).put("id", 1)));
+    }
+
+    @Test
+    public void testCacheHit() {
+        StructAccessor.Cache cache = new StructAccessor.Cache(TOKENS);
+        Schema schema = schema(Schema.STRING_SCHEMA);
+
+        StructAccessor accessor = cache.get(schema);
+        Assertions.assertSame(accessor, cache.get(schema));
+        Assertions.assertEquals(1, cache.size());
+
+        // a schema the path does not resolve in is cached as well, so it is only compiled once.
+        Schema unresolved = schema(Schema.INT32_SCHEMA);
+        Assertions.assertNull(cache.get(unresolved));
+        Assertions.assertNull(cache.get(unresolved));
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        StructAccessor.Cache cache = new StructAccessor.Cache(TOKENS);
+        Schema first = schema(Schema.STRING_SCHEMA);
+        StructAccessor accessor = cache.get(first);
+
+        for (int i = 0; i < StructAccessor.Cache.MAX_SCHEMAS; i++) {
+            cache.get(schema(Schema.STRING_SCHEMA));
+        }
+        Assertions.assertEquals(StructAccessor.Cache.MAX_SCHEMAS, cache.size());
+
+        // the first schema was evicted, so it gets a new accessor.
+        Assertions.assertNotSame(accessor, cache.get(first));
+    }
+
+    @Test
+    public void testSchemaEvolution() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.CONNECT_FIELD_NAME, "payload.data");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+
+        MaskJsonField<SinkRecord> maskJsonField = new MaskJsonField.Value<>();
+        maskJsonField.configure(configs);
+
+        Schema v1 = schema(Schema.STRING_SCHEMA);
+        Schema v2 = SchemaBuilder.struct()
+                .field("payload", SchemaBuilder.struct()
+                        .field("version", Schema.INT32_SCHEMA)
+                        .field("data", Schema.OPTIONAL_STRING_SCHEMA)
+                        .build())
+                .build();
+
+        Struct value = new Struct(v1)
+                .put("id", 1)
+                .put("payload", new Struct(v1.field("payload").schema()).put("data", "{\"ssn\":\"111\"}"));
+        Struct transformed = (Struct) maskJsonField.apply(new SinkRecord("topic", 0, null, null, v1, value, 0)).value();
+        Assertions.assertEquals("{\"ssn\":\"\"}", transformed.getStruct("payload").getString("data"));
+
+        value = new Struct(v2)
+                .put("payload", new Struct(v2.field("payload").schema()).put("version", 2).put("data", "{\"ssn\":\"222\"}"));
+        transformed = (Struct) maskJsonField.apply(new SinkRecord("topic", 0, null, null, v2, value, 0)).value();
+        Assertions.assertEquals("{\"ssn\":\"\"}", transformed.getStruct("payload").getString("data"));
+
+        // a null optional payload is left as is.
+        value = new Struct(v2).put("payload", new Struct(v2.field("payload").schema()).put("version", 3));
+        transformed = (Struct) maskJsonField.apply(new SinkRecord("topic", 0, null, null, v2, value, 0)).value();
+        Assertions.assertNull(transformed.getStruct("payload").getString("data"));
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for REPLACEMENT_MODE=HMAC.
+ */
+public class TokenizationTests extends BaseTests {
+
+    private static final String KEY = "secret";
+
+    private static String token(String value) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testTokens(String engine) throws Exception {
+        MaskJsonField<SinkRecord> maskJsonField = create(engine, 100);
+
+        String payload = "{\"ssn\":\"111-22-1212\",\"n\":5,\"users\":[{\"ssn\":\"111-22-1212\"},{\"ssn\":\"ünï\"}]}";
+        String expected = "{\"ssn\":\"" + token("111-22-1212") + "\",\"n\":0," +
+                "\"users\":[{\"ssn\":\"" + token("111-22-1212") + "\"},{\"ssn\":\"" + token("ünï") + "\"}]}";
+
+        Assertions.assertEquals(expected, apply(maskJsonField, payload));
+        Assertions.assertEquals(expected, new String(
+                (byte[]) maskJsonField.apply(record(Schema.BYTES_SCHEMA, payload.getBytes(StandardCharsets.UTF_8))).value(),
+                StandardCharsets.UTF_8
+        ));
+
+        // 3 values for each of the 2 payloads, 2 of them distinct.
+        Assertions.assertEquals(2, maskJsonField.metrics().getTokenCacheMisses());
+        Assertions.assertEquals(4, maskJsonField.metrics().getTokenCacheHits());
+        Assertions.assertEquals(4.0 / 6, maskJsonField.metrics().getTokenCacheHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testWithoutCache() throws Exception {
+        MaskJsonField<SinkRecord> maskJsonField = create(MaskJsonFieldConfig.MASKING_ENGINE_TREE, 0);
+
+        String expected = "{\"ssn\":\"" + token("1") + "\"}";
+        Assertions.assertEquals(expected, apply(maskJsonField, "{\"ssn\":\"1\"}"));
+        Assertions.assertEquals(expected, apply(maskJsonField, "{\"ssn\":\"1\"}"));
+        Assertions.assertEquals(0, maskJsonField.metrics().getTokenCacheHits());
+        Assertions.assertEquals(2, maskJsonField.metrics().getTokenCacheMisses());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        Tokenizer.Cache cache = new Tokenizer.Cache(64);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("value-" + i, "token-" + i);
+        }
+        Assertions.assertTrue(cache.size() <= 64 + Tokenizer.Cache.SHARDS);
+        Assertions.assertEquals("token-9999", cache.get("value-9999"));
+        Assertions.assertNull(cache.get("value-0"));
+    }
+
+    @Test
+    public void testConfig() {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATH, "/ssn");
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_MODE, MaskJsonFieldConfig.REPLACEMENT_MODE_HMAC);
+
+        MaskJsonField<SinkRecord> maskJsonField = new MaskJsonField.Value<>();
+        Assertions.assertThrows(ConfigException.class, () -> maskJsonField.configure(configs));
+
+        configs.put(MaskJsonFieldConfig.HMAC_KEY, "   ");
+        Assertions.assertThrows(ConfigException.class, () -> maskJsonField.configure(configs));
+
+        configs.put(MaskJsonFieldConfig.HMAC_KEY, KEY);
+        configs.put(MaskJsonFieldConfig.HMAC_ALGORITHM, "HmacNope");
+        Assertions.assertThrows(ConfigException.class, () -> maskJsonField.configure(configs));
+
+        configs.put(MaskJsonFieldConfig.HMAC_ALGORITHM, "");
+        Assertions.assertThrows(ConfigException.class, () -> maskJsonField.configure(configs));
+    }
+
+    private MaskJsonField<SinkRecord> create(String engine, int cacheSize) {
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, "/ssn,/n,/users/*/ssn");
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_MODE, MaskJsonFieldConfig.REPLACEMENT_MODE_HMAC);
+        configs.put(MaskJsonFieldConfig.HMAC_KEY, KEY);
+        configs.put(MaskJsonFieldConfig.TOKEN_CACHE_SIZE, cacheSize);
+        return create(configs);
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.ferozed.kafka.connect.transforms;
+
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for * and ** segments in replacement paths, with each MASKING_ENGINE.
+ */
+public class WildcardTests extends BaseTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testAnySegment(String engine) {
+        testLib(
+                engine,
+                "/users/*/ssn",
+                "{\"users\":[{\"name\":\"a\",\"ssn\":\"1\"},{\"name\":\"b\"},{\"name\":\"c\",\"ssn\":\"3\"}],\"ssn\":\"4\"}",
+                "{\"users\":[{\"name\":\"a\",\"ssn\":\"\"},{\"name\":\"b\"},{\"name\":\"c\",\"ssn\":\"\"}],\"ssn\":\"4\"}"
+        );
+        testLib(
+                engine,
+                "/users/*/ssn",
+                "{\"users\":{\"a\":{\"ssn\":1},\"b\":{\"ssn\":2}}}",
+                "{\"users\":{\"a\":{\"ssn\":0},\"b\":{\"ssn\":0}}}"
+        );
+        testLib(
+                engine,
+                "/ssn/*",
+                "{\"ssn\":[\"111\",\"22\",\"3333\"]}",
+                "{\"ssn\":[\"\",\"\",\"\"]}"
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testAnyDepth(String engine) {
+        testLib(
+                engine,
+                "**/ssn",
+                "{\"ssn\":\"1\",\"a\":{\"ssn\":\"2\",\"b\":[{\"ssn\":\"3\"},{\"x\":{\"ssn\":4}}]}}",
+                "{\"ssn\":\"\",\"a\":{\"ssn\":\"\",\"b\":[{\"ssn\":\"\"},{\"x\":{\"ssn\":0}}]}}"
+        );
+        // ** matches zero levels too.
+        testLib(
+                engine,
+                "/a/**/b",
+                "{\"a\":{\"b\":\"1\",\"c\":{\"d\":{\"b\":\"2\"}}},\"b\":\"3\"}",
+                "{\"a\":{\"b\":\"\",\"c\":{\"d\":{\"b\":\"\"}}},\"b\":\"3\"}"
+        );
+        // a matched object is replaced as a whole.
+        testLib(
+                engine,
+                "**/ssn",
+                "{\"ssn\":{\"ssn\":\"1\"}}",
+                "{\"ssn\":{}}"
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testMixedPaths(String engine) {
+        // the first matching path decides the replacement.
+        testLib(
+                engine,
+                "/users/0/ssn=first,/users/*/ssn=any,**/dob=x",
+                "{\"users\":[{\"ssn\":\"1\",\"dob\":\"d\"},{\"ssn\":\"2\"}]}",
+                "{\"users\":[{\"ssn\":\"first\",\"dob\":\"x\"},{\"ssn\":\"any\"}]}"
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {MaskJsonFieldConfig.MASKING_ENGINE_TREE, MaskJsonFieldConfig.MASKING_ENGINE_STREAMING, MaskJsonFieldConfig.MASKING_ENGINE_SPLICE})
+    public void testNoMatch(String engine) {
+        String payload = "{\"users\":[{\"name\":\"a\"}]}";
+        testLib(engine, "/users/*/ssn", payload, payload);
+        testLib(engine, "**/ssn", payload, payload);
+    }
+
+    private void testLib(String engine, String paths, String payload, String expectedJson) {
+        MaskJsonField maskJsonField = new MaskJsonField.Value();
+
+        Map<String,Object> configs = new HashMap<>();
+        configs.put(MaskJsonFieldConfig.MASKING_ENGINE, engine);
+        configs.put(MaskJsonFieldConfig.REPLACEMENT_FIELD_PATHS, paths);
+        maskJsonField.configure(configs);
+
+        SinkRecord sinkRecord = new SinkRecord(
+                "topic",
+                0,
+                SchemaBuilder.STRING_SCHEMA,
+                "key",
+                SchemaBuilder.STRING_SCHEMA,
+                payload,
+                0
+        );
+
+        ConnectRecord transformedRecord = maskJsonField.apply(sinkRecord);
+
+        Assertions.assertEquals(expectedJson, transformedRecord.value(), engine + " " + paths);
+    }
+}